@@ -0,0 +1,23 @@
+#!/usr/bin/env bash
+# Builds an AppCDS archive for the fast-start profile.
+# Usage: scripts/build-cds-archive.sh target/Accouting-0.0.1-SNAPSHOT.jar [output-dir]
+# Run the result with:
+#   java -XX:SharedArchiveFile=<output-dir>/application.jsa -Dspring.aot.enabled=true \
+#        -jar <output-dir>/<jar-name> --spring.profiles.active=fast
+set -euo pipefail
+
+JAR="${1:?path to the Spring Boot jar}"
+OUT="${2:-$(dirname "$JAR")/cds}"
+
+rm -rf "$OUT"
+# Extract into the layout the CDS archive expects (unpacked libraries next to the application jar)
+java -Djarmode=tools -jar "$JAR" extract --destination "$OUT"
+
+APP_JAR="$OUT/$(basename "$JAR")"
+# Training run: refresh the context and exit before any job runs, dumping loaded classes to the archive
+java -XX:ArchiveClassesAtExit="$OUT/application.jsa" \
+     -Dspring.context.exit=onRefresh \
+     -Dspring.aot.enabled="${SPRING_AOT_ENABLED:-false}" \
+     -jar "$APP_JAR" --spring.profiles.active=fast
+
+echo "CDS archive written to $OUT/application.jsa"
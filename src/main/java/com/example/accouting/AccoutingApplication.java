@@ -2,12 +2,16 @@ package com.example.accouting;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class AccoutingApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(AccoutingApplication.class, args);
+        SpringApplication application = new SpringApplication(AccoutingApplication.class);
+        // Buffer startup steps so StartupTimingReporter can publish a startup time breakdown
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        application.run(args);
     }
 
 }
@@ -0,0 +1,203 @@
+package com.example.accouting.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe scalable Bloom filter for "have we seen this key before" pre-checks.
+ * A negative answer is definite; a positive answer must be confirmed against the exact store.
+ * When the current stage reaches its capacity a new stage with twice the capacity and a
+ * tighter false positive rate is added, so the compound rate stays below the configured target.
+ */
+public class ScalableBloomFilter {
+
+    // Each new stage gets half the false positive budget of the previous one
+    private static final double TIGHTENING_RATIO = 0.5;
+
+    private static final int GROWTH_FACTOR = 2;
+
+    private final double targetFalsePositiveRate;
+
+    private final Object growLock = new Object();
+
+    private volatile Stage[] stages;
+
+    public ScalableBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1): " + falsePositiveRate);
+        }
+        this.targetFalsePositiveRate = falsePositiveRate;
+        // The stage rates form a geometric series that sums to the target rate
+        this.stages = new Stage[]{new Stage(expectedInsertions, falsePositiveRate * (1 - TIGHTENING_RATIO))};
+    }
+
+    /**
+     * @return false if the key was definitely never added, true if it may have been
+     */
+    public boolean mightContain(String key) {
+        long h1 = hash1(key);
+        long h2 = hash2(key);
+        for (Stage stage : stages) {
+            if (stage.mightContain(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add a key to the filter, growing it if the current stage is full.
+     *
+     * @return true if the key was not already (possibly) present
+     */
+    public boolean put(String key) {
+        long h1 = hash1(key);
+        long h2 = hash2(key);
+        Stage[] current = stages;
+        for (Stage stage : current) {
+            if (stage.mightContain(h1, h2)) {
+                return false;
+            }
+        }
+        Stage last = current[current.length - 1];
+        if (last.isFull()) {
+            last = grow(last);
+        }
+        last.put(h1, h2);
+        return true;
+    }
+
+    /**
+     * Expected false positive rate given the number of keys inserted so far
+     */
+    public double expectedFalsePositiveRate() {
+        double allNegative = 1.0;
+        for (Stage stage : stages) {
+            allNegative *= 1.0 - stage.currentFalsePositiveRate();
+        }
+        return 1.0 - allNegative;
+    }
+
+    public double getTargetFalsePositiveRate() {
+        return targetFalsePositiveRate;
+    }
+
+    public long approximateElementCount() {
+        long count = 0;
+        for (Stage stage : stages) {
+            count += stage.count.get();
+        }
+        return count;
+    }
+
+    public long bitSize() {
+        long bits = 0;
+        for (Stage stage : stages) {
+            bits += stage.numBits;
+        }
+        return bits;
+    }
+
+    public int stageCount() {
+        return stages.length;
+    }
+
+    private Stage grow(Stage full) {
+        synchronized (growLock) {
+            Stage[] current = stages;
+            Stage last = current[current.length - 1];
+            if (last != full) {
+                // Another thread already added a stage
+                return last;
+            }
+            Stage next = new Stage(full.capacity * GROWTH_FACTOR, full.falsePositiveRate * TIGHTENING_RATIO);
+            Stage[] grown = new Stage[current.length + 1];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            grown[current.length] = next;
+            stages = grown;
+            return next;
+        }
+    }
+
+    private static long hash1(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long hash2(String key) {
+        long h = 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < key.length(); i++) {
+            h = Long.rotateLeft(h ^ key.charAt(i), 31) * 0xc2b2ae3d27d4eb4fL;
+        }
+        // Force the step to be odd so that all bit positions are reachable
+        return mix(h) | 1L;
+    }
+
+    // MurmurHash3 finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Stage {
+
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long numBits;
+        private final int numHashFunctions;
+        private final AtomicLongArray bits;
+        private final AtomicLong count = new AtomicLong();
+
+        private Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBits + 63) / 64);
+            this.numBits = (long) words * 64;
+            this.numHashFunctions = Math.max(1, (int) Math.round((double) numBits / capacity * Math.log(2)));
+            this.bits = new AtomicLongArray(words);
+        }
+
+        private boolean isFull() {
+            return count.get() >= capacity;
+        }
+
+        private boolean mightContain(long h1, long h2) {
+            long combined = h1;
+            for (int i = 0; i < numHashFunctions; i++) {
+                long index = Math.floorMod(combined, numBits);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+                combined += h2;
+            }
+            return true;
+        }
+
+        private void put(long h1, long h2) {
+            long combined = h1;
+            for (int i = 0; i < numHashFunctions; i++) {
+                long index = Math.floorMod(combined, numBits);
+                long mask = 1L << index;
+                bits.getAndAccumulate((int) (index >>> 6), mask, (word, m) -> word | m);
+                combined += h2;
+            }
+            count.incrementAndGet();
+        }
+
+        private double currentFalsePositiveRate() {
+            double fillRatio = 1.0 - Math.exp(-(double) numHashFunctions * count.get() / numBits);
+            return Math.pow(fillRatio, numHashFunctions);
+        }
+    }
+}
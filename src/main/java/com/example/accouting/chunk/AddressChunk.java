@@ -0,0 +1,131 @@
+package com.example.accouting.chunk;
+
+import com.example.accouting.model.Address;
+
+/**
+ * Struct-of-arrays buffer for one chunk of address rows: a long[] of ids and one int-coded
+ * dictionary column each for org ID, AIC group ID, account ID and tempID. Replaces a
+ * List&lt;Address&gt; of entities, so a chunk costs a handful of arrays plus its distinct values.
+ */
+public class AddressChunk {
+
+    private final long[] ids;
+    private final int[] orgCodes;
+    private final int[] aicGroupCodes;
+    private final int[] accountCodes;
+    private final int[] tempIdCodes;
+
+    private final StringDictionary orgs = new StringDictionary();
+    private final StringDictionary aicGroups = new StringDictionary();
+    private final StringDictionary accounts = new StringDictionary();
+    private final StringDictionary tempIds = new StringDictionary();
+
+    private int size;
+
+    public AddressChunk(int capacity) {
+        this.ids = new long[capacity];
+        this.orgCodes = new int[capacity];
+        this.aicGroupCodes = new int[capacity];
+        this.accountCodes = new int[capacity];
+        this.tempIdCodes = new int[capacity];
+    }
+
+    public void add(long id, String orgID, String aicGroupID, String accountID, String tempID) {
+        if (size == ids.length) {
+            throw new IllegalStateException("Chunk is full: " + size + " rows");
+        }
+        ids[size] = id;
+        orgCodes[size] = orgs.encode(orgID);
+        aicGroupCodes[size] = aicGroups.encode(aicGroupID);
+        accountCodes[size] = accounts.encode(accountID);
+        tempIdCodes[size] = tempIds.encode(tempID);
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getId(int row) {
+        return ids[checkRow(row)];
+    }
+
+    public String getOrgID(int row) {
+        return orgs.decode(orgCodes[checkRow(row)]);
+    }
+
+    public String getAicGroupID(int row) {
+        return aicGroups.decode(aicGroupCodes[checkRow(row)]);
+    }
+
+    public String getAccountID(int row) {
+        return accounts.decode(accountCodes[checkRow(row)]);
+    }
+
+    public String getTempID(int row) {
+        return tempIds.decode(tempIdCodes[checkRow(row)]);
+    }
+
+    public void setTempID(int row, String tempID) {
+        tempIdCodes[checkRow(row)] = tempIds.encode(tempID);
+    }
+
+    /**
+     * @return the tempID dictionary code of a row, or {@link StringDictionary#NULL_CODE}
+     */
+    public int getTempIdCode(int row) {
+        return tempIdCodes[checkRow(row)];
+    }
+
+    /**
+     * @return the distinct tempIDs of this chunk, indexed by code
+     */
+    public StringDictionary getTempIds() {
+        return tempIds;
+    }
+
+    /**
+     * @return the distinct account IDs of this chunk, indexed by code
+     */
+    public StringDictionary getAccounts() {
+        return accounts;
+    }
+
+    public int distinctAccounts() {
+        return accounts.size();
+    }
+
+    /**
+     * Materialize one row as an entity, e.g. for logging
+     */
+    public Address toAddress(int row) {
+        return new Address(getId(row), getOrgID(row), getAicGroupID(row), getAccountID(row), getTempID(row));
+    }
+
+    /**
+     * Approximate heap held by this chunk: the arrays plus the distinct values
+     */
+    public long estimatedBytes() {
+        long arrays = (long) ids.length * Long.BYTES + 4L * orgCodes.length * Integer.BYTES;
+        return arrays + orgs.estimatedBytes() + aicGroups.estimatedBytes()
+                + accounts.estimatedBytes() + tempIds.estimatedBytes();
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of " + size);
+        }
+        return row;
+    }
+
+    @Override
+    public String toString() {
+        return "AddressChunk[" + size + " rows, ids " + (size == 0 ? "-" : ids[0] + ".." + ids[size - 1])
+                + ", " + orgs.size() + " orgs, " + aicGroups.size() + " AIC groups, "
+                + accounts.size() + " accounts, " + tempIds.size() + " tempIDs]";
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.accouting.chunk;
+
+import com.example.accouting.processor.AddressItemProcessor;
+import org.springframework.batch.item.ItemProcessor;
+
+/**
+ * Assigns tempIDs to every row of a columnar chunk in place, using the same account
+ * bookkeeping as the row-based {@link AddressItemProcessor}
+ */
+public class AddressChunkProcessor implements ItemProcessor<AddressChunk, AddressChunk> {
+
+    private final AddressItemProcessor processor;
+
+    public AddressChunkProcessor(AddressItemProcessor processor) {
+        this.processor = processor;
+    }
+
+    @Override
+    public AddressChunk process(AddressChunk chunk) {
+        for (int row = 0; row < chunk.size(); row++) {
+            chunk.setTempID(row, processor.assignTempId(chunk.getAccountID(row)));
+        }
+        return chunk;
+    }
+}
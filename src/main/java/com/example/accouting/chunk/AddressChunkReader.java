@@ -0,0 +1,87 @@
+package com.example.accouting.chunk;
+
+import com.example.accouting.jfr.AccountingEvents;
+import com.example.accouting.jfr.PageFetchEvent;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Reads the address table in primary key order straight into {@link AddressChunk}s, one
+ * keyset page per chunk, without creating an entity per row. Org, AIC group and tempID values
+ * go through shared interners so repeated values are a single String instance.
+ * Thread-safe, so it can feed a multi-threaded step.
+ */
+public class AddressChunkReader implements ItemStreamReader<AddressChunk> {
+
+    private static final String LAST_ID_KEY = "addressChunkReader.lastId";
+
+    private static final String PAGE_SQL =
+            "SELECT id, org_id, aic_group_id, account_id, temp_id FROM address WHERE id > ? ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkRows;
+    private final StringInterner orgInterner;
+    private final StringInterner aicGroupInterner;
+    private final StringInterner tempIdInterner;
+
+    private long lastId = Long.MIN_VALUE;
+    private boolean exhausted;
+
+    public AddressChunkReader(DataSource dataSource, int chunkRows, int internerMaxSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(chunkRows);
+        this.chunkRows = chunkRows;
+        this.orgInterner = new StringInterner(internerMaxSize);
+        this.aicGroupInterner = new StringInterner(internerMaxSize);
+        this.tempIdInterner = new StringInterner(internerMaxSize);
+    }
+
+    @Override
+    public synchronized AddressChunk read() {
+        if (exhausted) {
+            return null;
+        }
+        PageFetchEvent event = new PageFetchEvent();
+        event.begin();
+        AddressChunk chunk = new AddressChunk(chunkRows);
+        jdbcTemplate.query(PAGE_SQL, rs -> {
+            chunk.add(rs.getLong(1),
+                    orgInterner.intern(rs.getString(2)),
+                    aicGroupInterner.intern(rs.getString(3)),
+                    rs.getString(4),
+                    tempIdInterner.intern(rs.getString(5)));
+        }, lastId, chunkRows);
+        event.end();
+        if (event.shouldCommit()) {
+            event.jobExecutionId = AccountingEvents.currentJobExecutionId();
+            event.reader = "addressChunkReader";
+            event.rows = chunk.size();
+            event.bytes = chunk.estimatedBytes();
+            event.commit();
+        }
+
+        if (chunk.size() < chunkRows) {
+            exhausted = true;
+        }
+        if (chunk.isEmpty()) {
+            return null;
+        }
+        lastId = chunk.getId(chunk.size() - 1);
+        return chunk;
+    }
+
+    @Override
+    public synchronized void open(ExecutionContext executionContext) throws ItemStreamException {
+        exhausted = false;
+        lastId = executionContext.containsKey(LAST_ID_KEY) ? executionContext.getLong(LAST_ID_KEY) : Long.MIN_VALUE;
+    }
+
+    @Override
+    public synchronized void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(LAST_ID_KEY, lastId);
+    }
+}
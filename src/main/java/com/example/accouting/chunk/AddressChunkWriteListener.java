@@ -0,0 +1,24 @@
+package com.example.accouting.chunk;
+
+import com.example.accouting.summary.ClusterStatistics;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.item.Chunk;
+
+/**
+ * Feeds written columnar chunks into the run's {@link ClusterStatistics}
+ */
+public class AddressChunkWriteListener implements ItemWriteListener<AddressChunk> {
+
+    private final ClusterStatistics clusterStatistics;
+
+    public AddressChunkWriteListener(ClusterStatistics clusterStatistics) {
+        this.clusterStatistics = clusterStatistics;
+    }
+
+    @Override
+    public void afterWrite(Chunk<? extends AddressChunk> items) {
+        for (AddressChunk chunk : items) {
+            clusterStatistics.recordColumns(chunk);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.accouting.chunk;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Writes the tempID column of columnar chunks back with one JDBC batch per chunk
+ */
+public class AddressChunkWriter implements ItemWriter<AddressChunk> {
+
+    private static final String UPDATE_SQL = "UPDATE address SET temp_id = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AddressChunkWriter(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void write(Chunk<? extends AddressChunk> chunks) {
+        for (AddressChunk chunk : chunks) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int row) throws SQLException {
+                    ps.setString(1, chunk.getTempID(row));
+                    ps.setLong(2, chunk.getId(row));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return chunk.size();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.accouting.chunk;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-chunk dictionary assigning dense int codes to distinct strings. Null is coded as -1.
+ * Not thread-safe; a chunk is only touched by one thread at a time.
+ */
+public class StringDictionary {
+
+    public static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    private final List<String> values = new ArrayList<>();
+
+    public int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    public String decode(int code) {
+        return code == NULL_CODE ? null : values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * Approximate heap held by the distinct values (Latin-1 compact strings)
+     */
+    long estimatedBytes() {
+        long bytes = 0;
+        for (String value : values) {
+            bytes += 40 + value.length();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.accouting.chunk;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe interner shared by all chunks, so that rows with the same low-cardinality value
+ * (org ID, AIC group ID, tempID) reference one String instance instead of one copy per row.
+ * Stops taking new values once it holds maxSize of them, so a high-cardinality column cannot
+ * grow it without bound.
+ */
+public class StringInterner {
+
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+
+    public StringInterner(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String canonical = values.get(value);
+        if (canonical != null) {
+            return canonical;
+        }
+        if (values.size() >= maxSize) {
+            return value;
+        }
+        canonical = values.putIfAbsent(value, value);
+        return canonical == null ? value : canonical;
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.accouting.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Moves an existing PostgreSQL address table from Hibernate's default column names (orgid, ...)
+ * to the explicit snake_case names of the entity. Runs before the entity manager factory, so
+ * schema update never adds empty columns next to the populated ones. Idempotent; a no-op on
+ * new databases and on other database types.
+ */
+public class AddressColumnMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(AddressColumnMigration.class);
+
+    private static final String SCRIPT = "schema/address-column-rename-postgresql.sql";
+
+    private final DataSource dataSource;
+
+    public AddressColumnMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public void migrate() throws Exception {
+        if (DatabaseType.fromMetaData(dataSource) != DatabaseType.POSTGRES) {
+            return;
+        }
+        String script = new ClassPathResource(SCRIPT).getContentAsString(StandardCharsets.UTF_8);
+        // The PostgreSQL driver runs the DO block as one statement
+        new JdbcTemplate(dataSource).execute(script);
+        log.info("Checked address column names");
+    }
+}
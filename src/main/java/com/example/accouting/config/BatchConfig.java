@@ -1,34 +1,73 @@
 package com.example.accouting.config;
 
+import com.example.accouting.chunk.AddressChunk;
+import com.example.accouting.chunk.AddressChunkProcessor;
+import com.example.accouting.chunk.AddressChunkReader;
+import com.example.accouting.chunk.AddressChunkWriteListener;
+import com.example.accouting.chunk.AddressChunkWriter;
+import com.example.accouting.export.ExportTempIdsTasklet;
+import com.example.accouting.housekeeping.BatchMetadataRetentionTasklet;
+import com.example.accouting.jfr.JfrChunkListener;
+import com.example.accouting.jfr.JfrItemWriter;
+import com.example.accouting.jfr.JfrJdbcPagingItemReader;
+import com.example.accouting.listener.ChunkTimingListener;
+import com.example.accouting.listener.ReplicaRoutePinningListener;
+import com.example.accouting.lookup.TempIdLookupService;
+import com.example.accouting.lookup.TempIdSnapshotJobListener;
 import com.example.accouting.model.Address;
+import com.example.accouting.partition.AicGroupRangePartitioner;
+import com.example.accouting.partition.FairShareShardScheduler;
+import com.example.accouting.partition.OrgShardPlanner;
+import com.example.accouting.planner.AddressSampler;
+import com.example.accouting.planner.ExecutionPlanJobListener;
+import com.example.accouting.planner.ExecutionPlanner;
+import com.example.accouting.planner.PlannedCompletionPolicy;
+import com.example.accouting.planner.PlanningTasklet;
 import com.example.accouting.processor.AddressItemProcessor;
 import com.example.accouting.repository.AddressRepository;
+import com.example.accouting.repository.AddressRowMapper;
+import com.example.accouting.repository.HashBucketSql;
+import com.example.accouting.summary.ClusterStatistics;
+import com.example.accouting.summary.JobSummaryListener;
+import com.example.accouting.swap.ShadowTableSwapTasklet;
+import com.example.accouting.throttle.AdaptiveWriteGovernor;
+import com.example.accouting.throttle.DatabaseLoadProbe;
+import com.example.accouting.throttle.ThrottledItemWriter;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
+import org.springframework.batch.core.configuration.annotation.StepScope;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.builder.SimpleJobBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
 import org.springframework.batch.core.step.builder.StepBuilder;
-import org.springframework.batch.item.data.RepositoryItemReader;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.data.RepositoryItemWriter;
-import org.springframework.batch.item.data.builder.RepositoryItemReaderBuilder;
 import org.springframework.batch.item.data.builder.RepositoryItemWriterBuilder;
 import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.database.JdbcPagingItemReader;
+import org.springframework.batch.item.database.Order;
 import org.springframework.batch.item.database.builder.JdbcBatchItemWriterBuilder;
+import org.springframework.batch.item.database.support.SqlPagingQueryProviderFactoryBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.task.SimpleAsyncTaskExecutor;
-import org.springframework.core.task.TaskExecutor;
-import org.springframework.data.domain.Sort;
 import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -46,6 +85,11 @@ public class BatchConfig {
     @Qualifier("primaryDataSource")
     private DataSource primaryDataSource;
 
+    // Replica when configured and within the lag limit, primary otherwise; used only for reads
+    @Autowired
+    @Qualifier("readDataSource")
+    private DataSource readDataSource;
+
     @Autowired
     @Qualifier("batchDataSource")
     private DataSource batchDataSource;
@@ -63,6 +107,140 @@ public class BatchConfig {
     @Value("${batch.max.threads:4}")
     private int maxThreads;
 
+    // "id" reads in primary key order; "grouped" reads clustered by (aic_group_id, account_id) per AIC group range
+    @Value("${batch.reader.mode:id}")
+    private String readerMode;
+
+    // "row" processes List<Address> chunks; "columnar" processes struct-of-arrays AddressChunks (id reader mode only)
+    @Value("${batch.chunk.layout:row}")
+    private String chunkLayout;
+
+    // Maximum distinct org/AIC group/tempID values shared between columnar chunks
+    @Value("${batch.chunk.interner.max.size:100000}")
+    private int chunkInternerMaxSize;
+
+    // Number of org ID hash buckets for the sharded mode; each non-empty bucket runs as its own job
+    @Value("${batch.shard.buckets:32}")
+    private int shardBuckets;
+
+    // Concurrency limits for the sharded mode
+    @Value("${batch.shard.max.threads:8}")
+    private int shardMaxThreads;
+
+    @Value("${batch.shard.max.connections:16}")
+    private int shardMaxConnections;
+
+    // Connections one running shard holds, used to turn the connection limit into a shard count
+    @Value("${batch.shard.connections.per.shard:2}")
+    private int shardConnectionsPerShard;
+
+    // Shards with at most this many rows are served from the reserved slot, smallest first
+    @Value("${batch.shard.small.rows:100000}")
+    private long shardSmallRows;
+
+    // "in-place" updates each row as chunks are written and then runs the final update;
+    // "shadow-swap" skips the row updates and builds a new address table that is swapped in at the end
+    @Value("${batch.finalize.strategy:in-place}")
+    private String finalizeStrategy;
+
+    // Pace writes to the primary with a token bucket whose rate adapts to the database load (AIMD)
+    @Value("${batch.write.governor.enabled:false}")
+    private boolean writeGovernorEnabled;
+
+    // Rate bounds in rows per second
+    @Value("${batch.write.governor.min.rate:1000}")
+    private double writeGovernorMinRate;
+
+    @Value("${batch.write.governor.max.rate:200000}")
+    private double writeGovernorMaxRate;
+
+    @Value("${batch.write.governor.initial.rate:20000}")
+    private double writeGovernorInitialRate;
+
+    @Value("${batch.write.governor.increase.step:2000}")
+    private double writeGovernorIncreaseStep;
+
+    @Value("${batch.write.governor.decrease.factor:0.5}")
+    private double writeGovernorDecreaseFactor;
+
+    @Value("${batch.write.governor.adjust.interval.ms:1000}")
+    private long writeGovernorAdjustIntervalMillis;
+
+    // Targets; the rate backs off when any of them is exceeded
+    @Value("${batch.write.governor.max.pending.connections:0}")
+    private int writeGovernorMaxPendingConnections;
+
+    @Value("${batch.write.governor.target.batch.latency.ms:500}")
+    private long writeGovernorTargetBatchLatencyMillis;
+
+    // PostgreSQL only, 0 disables
+    @Value("${batch.write.governor.max.replication.lag.ms:0}")
+    private long writeGovernorMaxReplicationLagMillis;
+
+    @Value("${batch.write.governor.max.active.sessions:0}")
+    private int writeGovernorMaxActiveSessions;
+
+    // Sample the address table and choose chunk/page sizes, threads and preload before processing
+    @Value("${batch.planner.enabled:false}")
+    private boolean plannerEnabled;
+
+    @Value("${batch.planner.sample.rows:100000}")
+    private int plannerSampleRows;
+
+    // Number of id ranges sampled where TABLESAMPLE is not available
+    @Value("${batch.planner.id.ranges:64}")
+    private int plannerIdRanges;
+
+    // Fixed seed so repeated runs over the same data sample the same rows
+    @Value("${batch.planner.seed:42}")
+    private long plannerSeed;
+
+    @Value("${batch.planner.rows.per.thread:250000}")
+    private long plannerRowsPerThread;
+
+    @Value("${batch.planner.target.chunk.bytes:262144}")
+    private long plannerTargetChunkBytes;
+
+    // Calibrated processing throughput of one thread, used for the expected runtime
+    @Value("${batch.planner.rows.per.second.per.thread:20000}")
+    private double plannerRowsPerSecondPerThread;
+
+
+    @Value("${batch.preload.max.accounts:100000}")
+    private long preloadMaxAccounts;
+
+    @Value("${batch.bloom.enabled:true}")
+    private boolean bloomEnabled;
+
+    // Purge Spring Batch metadata of old executions at the end of each run
+    @Value("${batch.metadata.retention.enabled:false}")
+    private boolean metadataRetentionEnabled;
+
+    @Value("${batch.metadata.retention.days:30}")
+    private int metadataRetentionDays;
+
+    // Executions with these statuses are eligible once older than the retention period
+    @Value("${batch.metadata.retention.statuses:COMPLETED,FAILED,STOPPED,ABANDONED}")
+    private List<BatchStatus> metadataRetentionStatuses;
+
+    // Job executions deleted per transaction
+    @Value("${batch.metadata.retention.batch.size:500}")
+    private int metadataRetentionBatchSize;
+
+    @Value("${batch.metadata.indexes.enabled:true}")
+    private boolean metadataIndexesEnabled;
+
+    // Export the final tempID assignment to a columnar file after the final update
+    @Value("${batch.export.enabled:false}")
+    private boolean exportEnabled;
+
+    @Value("${batch.export.path:export/address-tempids.tidc}")
+    private String exportPath;
+
+    // Number of rows kept as a random sample for the end-of-run summary (0 disables sampling)
+    @Value("${batch.summary.sample.size:10}")
+    private int summarySampleSize;
+
     /**
      * Configure a custom JobRepository that uses the batch datasource
      */
@@ -78,20 +256,100 @@ public class BatchConfig {
     }
 
     /**
-     * Configure a paged repository reader for efficient processing of large datasets
+     * Configure a paged reader in primary key order on the read datasource, using the page size
+     * of the job's execution plan when the planning step ran
      */
     @Bean
-    public RepositoryItemReader<Address> reader() {
-        Map<String, Sort.Direction> sorts = new HashMap<>();
-        sorts.put("id", Sort.Direction.ASC);
+    @StepScope
+    public JdbcPagingItemReader<Address> reader(
+            @Value("#{jobExecutionContext['plan.page.size']}") Integer plannedPageSize) throws Exception {
+        Map<String, Order> sortKeys = new LinkedHashMap<>();
+        sortKeys.put("id", Order.ASCENDING);
 
-        return new RepositoryItemReaderBuilder<Address>()
-                .name("addressReader")
-                .repository(addressRepository)
-                .methodName("findAll")
-                .pageSize(pageSize)
-                .sorts(sorts)
-                .build();
+        return addressPagingReader("addressReader", null, new HashMap<>(), sortKeys,
+                plannedPageSize != null ? plannedPageSize : pageSize);
+    }
+
+    /**
+     * Configure a reader for one range partition of AIC groups, streaming rows clustered by
+     * (aic_group_id, account_id) so that each worker sees every row of its groups together.
+     * The partition of rows with a NULL group or account is read in primary key order.
+     */
+    @Bean
+    @StepScope
+    public JdbcPagingItemReader<Address> groupedReader(
+            @Value("#{stepExecutionContext['fromGroup']}") String fromGroup,
+            @Value("#{stepExecutionContext['toGroup']}") String toGroup,
+            @Value("#{stepExecutionContext['nullKeys']}") Boolean nullKeys,
+            @Value("#{jobExecutionContext['plan.page.size']}") Integer plannedPageSize) throws Exception {
+        Map<String, Order> sortKeys = new LinkedHashMap<>();
+        if (!Boolean.TRUE.equals(nullKeys)) {
+            sortKeys.put("aic_group_id", Order.ASCENDING);
+            sortKeys.put("account_id", Order.ASCENDING);
+        }
+        sortKeys.put("id", Order.ASCENDING);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(AicGroupRangePartitioner.FROM_GROUP_KEY, fromGroup);
+        parameters.put(AicGroupRangePartitioner.TO_GROUP_KEY, toGroup);
+
+        return addressPagingReader("groupedAddressReader",
+                AicGroupRangePartitioner.whereClause(fromGroup, toGroup, nullKeys), parameters, sortKeys,
+                plannedPageSize != null ? plannedPageSize : pageSize);
+    }
+
+    /**
+     * Configure a reader for one org ID hash bucket, in primary key order
+     */
+    @Bean
+    @StepScope
+    public JdbcPagingItemReader<Address> orgShardReader(
+            @Value("#{jobParameters['bucket']}") Long bucket,
+            @Value("#{jobParameters['buckets']}") Long buckets) throws Exception {
+        Map<String, Order> sortKeys = new LinkedHashMap<>();
+        sortKeys.put("id", Order.ASCENDING);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("bucket", bucket);
+
+        return addressPagingReader("orgShardReader",
+                HashBucketSql.bucketExpression(readDataSource, "org_id", buckets.intValue()) + " = :bucket",
+                parameters, sortKeys, pageSize);
+    }
+
+    /**
+     * Paging reader over the address table on the read datasource; each page query is
+     * reported as a JFR event when recording with jfr/accounting.jfc
+     */
+    private JdbcPagingItemReader<Address> addressPagingReader(String name, String whereClause,
+                                                              Map<String, Object> parameters,
+                                                              Map<String, Order> sortKeys,
+                                                              int pageSize) throws Exception {
+        SqlPagingQueryProviderFactoryBean queryProvider = new SqlPagingQueryProviderFactoryBean();
+        queryProvider.setDataSource(readDataSource);
+        queryProvider.setSelectClause("SELECT id, org_id, aic_group_id, account_id, temp_id");
+        queryProvider.setFromClause("FROM address");
+        queryProvider.setWhereClause(whereClause);
+        queryProvider.setSortKeys(sortKeys);
+
+        JfrJdbcPagingItemReader<Address> reader = new JfrJdbcPagingItemReader<>();
+        reader.setName(name);
+        reader.setDataSource(readDataSource);
+        reader.setQueryProvider(queryProvider.getObject());
+        reader.setParameterValues(parameters);
+        reader.setRowMapper(new AddressRowMapper());
+        reader.setRowSizeEstimator(AddressRowMapper::estimatedSize);
+        reader.setPageSize(pageSize);
+        reader.setFetchSize(pageSize);
+        return reader;
+    }
+
+    /**
+     * Configure the partitioner that assigns contiguous AIC group ranges to workers
+     */
+    @Bean
+    public AicGroupRangePartitioner aicGroupPartitioner() {
+        return new AicGroupRangePartitioner(readDataSource);
     }
 
     /**
@@ -115,9 +373,40 @@ public class BatchConfig {
     }
 
     /**
-     * Configure a repository writer as fallback
+     * Configure the writer used by the processing steps; reports each chunk write as a JFR event
+     */
+    @Bean
+    public ItemWriter<Address> processingWriter() throws Exception {
+        if (isShadowSwap()) {
+            // Rows get their tempID when the shadow table is built; listeners still see every chunk
+            return new JfrItemWriter<>(chunk -> { });
+        }
+        if (writeGovernorEnabled) {
+            return new JfrItemWriter<>(new ThrottledItemWriter<>(jdbcBatchWriter(), adaptiveWriteGovernor()));
+        }
+        return new JfrItemWriter<>(jdbcBatchWriter());
+    }
+
+    /**
+     * Configure the governor that paces writes to the primary; only created when enabled
+     */
+    @Bean
+    @Lazy
+    public AdaptiveWriteGovernor adaptiveWriteGovernor() throws Exception {
+        DatabaseLoadProbe probe = new DatabaseLoadProbe(primaryDataSource,
+                writeGovernorMaxReplicationLagMillis > 0 || writeGovernorMaxActiveSessions > 0);
+        return new AdaptiveWriteGovernor(probe, writeGovernorMinRate, writeGovernorMaxRate,
+                writeGovernorInitialRate, writeGovernorIncreaseStep, writeGovernorDecreaseFactor,
+                writeGovernorAdjustIntervalMillis, writeGovernorMaxPendingConnections,
+                writeGovernorTargetBatchLatencyMillis, writeGovernorMaxReplicationLagMillis,
+                writeGovernorMaxActiveSessions);
+    }
+
+    /**
+     * Configure a repository writer as fallback; only created if something asks for it
      */
     @Bean
+    @Lazy
     public RepositoryItemWriter<Address> repositoryWriter() {
         return new RepositoryItemWriterBuilder<Address>()
                 .repository(addressRepository)
@@ -125,11 +414,70 @@ public class BatchConfig {
                 .build();
     }
 
+    /**
+     * Configure a listener that records chunk latencies for reporting
+     */
+    @Bean
+    public ChunkTimingListener chunkTimingListener() {
+        return new ChunkTimingListener();
+    }
+
+    /**
+     * Configure a listener that reports chunks as JFR events; disabled unless a recording enables them
+     */
+    @Bean
+    public JfrChunkListener jfrChunkListener() {
+        return new JfrChunkListener();
+    }
+
+    /**
+     * Configure incremental cluster statistics collected as chunks are written
+     */
+    @Bean
+    public ClusterStatistics clusterStatistics() {
+        return new ClusterStatistics(summarySampleSize);
+    }
+
+    /**
+     * Configure a listener that stores the run summary in the processing step's ExecutionContext
+     */
+    @Bean
+    public JobSummaryListener jobSummaryListener() {
+        return new JobSummaryListener(clusterStatistics());
+    }
+
+    /**
+     * Configure cluster statistics per org shard step, as shard jobs run concurrently
+     */
+    @Bean
+    @StepScope
+    public ClusterStatistics shardClusterStatistics() {
+        // The shared gauges stay with the addressJob statistics
+        return new ClusterStatistics(summarySampleSize, false);
+    }
+
+    /**
+     * Configure a listener that stores the summary of one org shard in its step ExecutionContext
+     */
+    @Bean
+    @StepScope
+    public JobSummaryListener shardSummaryListener() {
+        return new JobSummaryListener(shardClusterStatistics());
+    }
+
+    /**
+     * Configure a listener that keeps each processing step's reads on one side of the replica routing
+     */
+    @Bean
+    public ReplicaRoutePinningListener replicaRoutePinningListener() {
+        return new ReplicaRoutePinningListener(readDataSource);
+    }
+
     /**
      * Configure a task executor for parallel processing
      */
     @Bean
-    public TaskExecutor taskExecutor() {
+    public SimpleAsyncTaskExecutor taskExecutor() {
         SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("batch-");
         executor.setConcurrencyLimit(maxThreads);
         return executor;
@@ -141,11 +489,97 @@ public class BatchConfig {
     @Bean
     public Step processAddressStep() throws Exception {
         return new StepBuilder("processAddressStep", jobRepository())
-                .<Address, Address>chunk(chunkSize, batchTransactionManager)
-                .reader(reader())
+                .<Address, Address>chunk(new PlannedCompletionPolicy(chunkSize), batchTransactionManager)
+                .reader(reader(null))
+                .processor(processor())
+                .writer(processingWriter())
+                .listener(chunkTimingListener())
+                .listener(jfrChunkListener())
+                .listener(clusterStatistics())
+                .listener(jobSummaryListener())
+                .listener(replicaRoutePinningListener())
+                .taskExecutor(taskExecutor())
+                .build();
+    }
+
+    /**
+     * Configure a reader that fills columnar chunks in primary key order, of the planned chunk
+     * size when the planning step ran and of chunkSize rows otherwise
+     */
+    @Bean
+    @StepScope
+    public AddressChunkReader addressChunkReader(
+            @Value("#{jobExecutionContext['plan.chunk.size']}") Integer plannedChunkSize) {
+        return new AddressChunkReader(readDataSource, plannedChunkSize != null ? plannedChunkSize : chunkSize,
+                chunkInternerMaxSize);
+    }
+
+    /**
+     * Configure the columnar processing step; each item is a whole AddressChunk, so the
+     * commit interval is one item
+     */
+    @Bean
+    public Step processAddressColumnarStep() throws Exception {
+        return new StepBuilder("processAddressColumnarStep", jobRepository())
+                .<AddressChunk, AddressChunk>chunk(1, batchTransactionManager)
+                .reader(addressChunkReader(null))
+                .processor(new AddressChunkProcessor(processor()))
+                .writer(new JfrItemWriter<>(columnarWriter()))
+                .listener(chunkTimingListener())
+                .listener(jfrChunkListener())
+                .listener(new AddressChunkWriteListener(clusterStatistics()))
+                .listener(jobSummaryListener())
+                .listener(replicaRoutePinningListener())
+                .taskExecutor(taskExecutor())
+                .build();
+    }
+
+    /**
+     * Configure the worker step that processes one AIC group partition on a single thread
+     */
+    @Bean
+    public Step groupedWorkerStep() throws Exception {
+        return new StepBuilder("groupedWorkerStep", jobRepository())
+                .<Address, Address>chunk(new PlannedCompletionPolicy(chunkSize), batchTransactionManager)
+                .reader(groupedReader(null, null, null, null))
                 .processor(processor())
-                .writer(jdbcBatchWriter())
+                .writer(processingWriter())
+                .listener(chunkTimingListener())
+                .listener(jfrChunkListener())
+                .listener(clusterStatistics())
+                .build();
+    }
+
+    /**
+     * Configure the grouped processing step: one worker per AIC group range partition
+     */
+    @Bean
+    public Step processAddressGroupedStep() throws Exception {
+        return new StepBuilder("processAddressGroupedStep", jobRepository())
+                .partitioner("groupedWorkerStep", aicGroupPartitioner())
+                .step(groupedWorkerStep())
+                .gridSize(maxThreads)
                 .taskExecutor(taskExecutor())
+                .listener(jobSummaryListener())
+                .listener(replicaRoutePinningListener())
+                .build();
+    }
+
+    /**
+     * Configure the single-threaded step of one org shard job
+     */
+    @Bean
+    public Step orgShardStep() throws Exception {
+        return new StepBuilder("orgShardStep", jobRepository())
+                .<Address, Address>chunk(chunkSize, batchTransactionManager)
+                .reader(orgShardReader(null, null))
+                .processor(processor())
+                .writer(processingWriter())
+                .listener(chunkTimingListener())
+                .listener(jfrChunkListener())
+                .listener(shardClusterStatistics())
+                .listener(shardSummaryListener())
+                .listener(replicaRoutePinningListener())
                 .build();
     }
 
@@ -162,14 +596,151 @@ public class BatchConfig {
                 .build();
     }
 
+    /**
+     * Configure a step that builds a shadow address table with the final tempIDs and swaps it in
+     */
+    @Bean
+    public Step shadowSwapStep(AddressItemProcessor processor) throws Exception {
+        return new StepBuilder("shadowSwapStep", jobRepository())
+                .tasklet(new ShadowTableSwapTasklet(primaryDataSource, processor::finalTempIdFor),
+                        batchTransactionManager)
+                .build();
+    }
+
+    /**
+     * Configure a step to export the final tempID assignment as a compact columnar file
+     */
+    @Bean
+    public Step exportTempIdsStep() throws Exception {
+        return new StepBuilder("exportTempIdsStep", jobRepository())
+                .tasklet(new ExportTempIdsTasklet(primaryDataSource, Path.of(exportPath)), batchTransactionManager)
+                .build();
+    }
+
+    /**
+     * Configure a step that samples the address table and records the execution plan in the job context
+     */
+    @Bean
+    public Step planningStep() throws Exception {
+        AddressSampler sampler = new AddressSampler(readDataSource, plannerSampleRows, plannerIdRanges, plannerSeed);
+        ExecutionPlanner planner = new ExecutionPlanner(maxThreads, "grouped".equals(readerMode),
+                plannerRowsPerThread, plannerTargetChunkBytes, plannerRowsPerSecondPerThread,
+                preloadMaxAccounts, bloomEnabled);
+        return new StepBuilder("planningStep", jobRepository())
+                .tasklet(new PlanningTasklet(sampler, planner, processor(), taskExecutor()), batchTransactionManager)
+                .build();
+    }
+
+    /**
+     * Configure a listener that gives the shared task executor its configured thread limit back
+     * after a planned run
+     */
+    @Bean
+    public ExecutionPlanJobListener executionPlanJobListener() {
+        return new ExecutionPlanJobListener(taskExecutor(), maxThreads);
+    }
+
+    /**
+     * Configure a step that purges old job executions from the batch metadata tables
+     */
+    @Bean
+    public Step metadataRetentionStep() throws Exception {
+        return new StepBuilder("metadataRetentionStep", jobRepository())
+                .tasklet(new BatchMetadataRetentionTasklet(batchDataSource, "BATCH_",
+                        Duration.ofDays(metadataRetentionDays), metadataRetentionStatuses,
+                        metadataRetentionBatchSize, metadataIndexesEnabled), batchTransactionManager)
+                .build();
+    }
+
+    /**
+     * Configure a listener that refreshes the tempID lookup snapshot after a successful run
+     */
+    @Bean
+    public TempIdSnapshotJobListener tempIdSnapshotJobListener(TempIdLookupService tempIdLookupService) {
+        return new TempIdSnapshotJobListener(tempIdLookupService);
+    }
+
     /**
      * Configure the job with both processing and final update steps
      */
     @Bean
-    public Job addressJob(Step processAddressStep, Step finalUpdateStep) throws Exception {
-        return new JobBuilder("addressJob", jobRepository())
-                .start(processAddressStep)
-                .next(finalUpdateStep)
+    public Job addressJob(Step processAddressStep, Step processAddressGroupedStep, Step processAddressColumnarStep,
+                          Step finalUpdateStep, Step shadowSwapStep, Step exportTempIdsStep,
+                          Step metadataRetentionStep, Step planningStep,
+                          TempIdSnapshotJobListener tempIdSnapshotJobListener) throws Exception {
+        Step processStep;
+        if ("grouped".equals(readerMode)) {
+            processStep = processAddressGroupedStep;
+        } else if ("columnar".equals(chunkLayout)) {
+            processStep = processAddressColumnarStep;
+        } else {
+            processStep = processAddressStep;
+        }
+        SimpleJobBuilder job = plannerEnabled
+                ? new JobBuilder("addressJob", jobRepository()).listener(executionPlanJobListener())
+                        .start(planningStep).next(processStep)
+                : new JobBuilder("addressJob", jobRepository()).start(processStep);
+        job = job.listener(tempIdSnapshotJobListener)
+                .next(isShadowSwap() ? shadowSwapStep : finalUpdateStep);
+        if (exportEnabled) {
+            job = job.next(exportTempIdsStep);
+        }
+        if (metadataRetentionEnabled) {
+            job = job.next(metadataRetentionStep);
+        }
+        return job.build();
+    }
+
+    /**
+     * Configure the job run once per org shard in the sharded mode
+     */
+    @Bean
+    public Job orgShardJob() throws Exception {
+        return new JobBuilder("orgShardJob", jobRepository())
+                .start(orgShardStep())
                 .build();
     }
+
+    /**
+     * Configure the job that merges cross-org links once all org shards are done
+     */
+    @Bean
+    public Job orgShardMergeJob(Step finalUpdateStep, Step shadowSwapStep, Step exportTempIdsStep,
+                                Step metadataRetentionStep, TempIdSnapshotJobListener tempIdSnapshotJobListener) throws Exception {
+        SimpleJobBuilder job = new JobBuilder("orgShardMergeJob", jobRepository())
+                .listener(tempIdSnapshotJobListener)
+                .start(isShadowSwap() ? shadowSwapStep : finalUpdateStep);
+        if (exportEnabled) {
+            job = job.next(exportTempIdsStep);
+        }
+        if (metadataRetentionEnabled) {
+            job = job.next(metadataRetentionStep);
+        }
+        return job.build();
+    }
+
+    /**
+     * Configure the scheduler that runs the org shard jobs concurrently and then the merge job
+     */
+    @Bean
+    public FairShareShardScheduler fairShareShardScheduler(JobLauncher jobLauncher, Job orgShardJob,
+                                                           Job orgShardMergeJob) {
+        return new FairShareShardScheduler(jobLauncher, orgShardJob, orgShardMergeJob,
+                new OrgShardPlanner(readDataSource, shardBuckets),
+                shardMaxThreads, shardMaxConnections, shardConnectionsPerShard, shardSmallRows);
+    }
+
+    private ItemWriter<AddressChunk> columnarWriter() throws Exception {
+        if (isShadowSwap()) {
+            return chunks -> { };
+        }
+        ItemWriter<AddressChunk> writer = new AddressChunkWriter(primaryDataSource);
+        return writeGovernorEnabled
+                ? new ThrottledItemWriter<>(writer, adaptiveWriteGovernor(), AddressChunk::size)
+                : writer;
+    }
+
+    private boolean isShadowSwap() {
+        return "shadow-swap".equals(finalizeStrategy);
+    }
 }
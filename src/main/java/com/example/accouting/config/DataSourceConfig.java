@@ -1,12 +1,18 @@
 package com.example.accouting.config;
 
+import com.example.accouting.repository.AddressReadQueries;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
@@ -20,6 +26,7 @@ import java.util.Map;
  * Configuration for multiple datasources:
  * - Primary datasource for application data (accountingdb)
  * - Secondary datasource for Spring Batch metadata (AccountingBatchJobData)
+ * - Optional read-only replica of accountingdb for the large scans (spring.datasource.replica.*)
  */
 @Configuration
 public class DataSourceConfig {
@@ -41,10 +48,97 @@ public class DataSourceConfig {
                 .build();
     }
 
+    // Read replica DataSource Configuration (only when spring.datasource.replica.url is set)
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica")
+    @ConditionalOnProperty(name = "spring.datasource.replica.url")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean(name = "replicaDataSource")
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    @ConditionalOnProperty(name = "spring.datasource.replica.url")
+    public DataSource replicaDataSource() {
+        HikariDataSource dataSource = replicaDataSourceProperties()
+                .initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    // Fall back to the primary when the replica is further behind than this
+    @Value("${batch.replica.max.lag.ms:5000}")
+    private long replicaMaxLagMillis;
+
+    // How often the replica lag is sampled
+    @Value("${batch.replica.lag.check.interval.ms:1000}")
+    private long replicaLagCheckIntervalMillis;
+
+    // Query returning the replica lag in milliseconds; defaults to a WAL replay position and timestamp check on PostgreSQL
+    @Value("${batch.replica.lag.query:}")
+    private String replicaLagQuery;
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.datasource.replica.url")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                               @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        return new ReplicaLagMonitor(primaryDataSource, replicaDataSource,
+                replicaMaxLagMillis, replicaLagCheckIntervalMillis, replicaLagQuery);
+    }
+
+    /**
+     * Datasource for read-only scans: the replica while it is within the lag limit, the primary
+     * otherwise or when no replica is configured. Writes always go through primaryDataSource.
+     */
+    @Bean(name = "readDataSource")
+    public DataSource readDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                     @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                     ObjectProvider<ReplicaLagMonitor> replicaLagMonitor) {
+        DataSource replica = replicaDataSource.getIfAvailable();
+        if (replica == null) {
+            // Separate bean so the primary pool is not closed twice on shutdown
+            return new DelegatingDataSource(primaryDataSource);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replica, replicaLagMonitor.getObject());
+    }
+
+    @Bean
+    public AddressReadQueries addressReadQueries(@Qualifier("readDataSource") DataSource readDataSource) {
+        return new AddressReadQueries(readDataSource);
+    }
+
+    // Hibernate DDL mode for the application schema
+    @Value("${batch.schema.ddl.auto:update}")
+    private String ddlAuto;
+
+    // Skip DDL checks entirely when the recorded schema version matches this build
+    @Value("${batch.schema.skip.when.current:false}")
+    private boolean skipSchemaCheckWhenCurrent;
+
+    @Bean
+    public SchemaVersionGuard schemaVersionGuard(@Qualifier("primaryDataSource") DataSource dataSource) {
+        return new SchemaVersionGuard(dataSource, skipSchemaCheckWhenCurrent);
+    }
+
+    /**
+     * Rename legacy address columns before Hibernate validates or updates the schema
+     */
+    @Bean
+    public AddressColumnMigration addressColumnMigration(@Qualifier("primaryDataSource") DataSource dataSource)
+            throws Exception {
+        AddressColumnMigration migration = new AddressColumnMigration(dataSource);
+        migration.migrate();
+        return migration;
+    }
+
     @Primary
     @Bean(name = "entityManagerFactory")
     public LocalContainerEntityManagerFactoryBean entityManagerFactory(
-            @Qualifier("primaryDataSource") DataSource dataSource) {
+            @Qualifier("primaryDataSource") DataSource dataSource, SchemaVersionGuard schemaVersionGuard,
+            AddressColumnMigration addressColumnMigration) {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource);
         em.setPackagesToScan("com.example.accouting.model");
@@ -53,7 +147,11 @@ public class DataSourceConfig {
         em.setJpaVendorAdapter(vendorAdapter);
         
         Map<String, Object> properties = new HashMap<>();
-        properties.put("hibernate.hbm2ddl.auto", "update");
+        properties.put("hibernate.hbm2ddl.auto", schemaVersionGuard.resolveDdlAuto(ddlAuto));
+        if (schemaVersionGuard.isSchemaCurrent()) {
+            // The dialect is fixed, so Hibernate does not need to read JDBC metadata at boot
+            properties.put("hibernate.boot.allow_jdbc_metadata_access", false);
+        }
         properties.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
         properties.put("hibernate.jdbc.batch_size", 100);
         properties.put("hibernate.order_inserts", true);
@@ -0,0 +1,49 @@
+package com.example.accouting.config;
+
+import com.example.accouting.processor.AddressItemProcessor;
+import com.example.accouting.reactive.ReactiveAddressEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration for the reactive (R2DBC) engine, only active with batch.reactive.enabled=true.
+ * The connection pool is owned by the engine rather than exposed as a ConnectionFactory bean,
+ * so the JDBC datasources and Spring Boot's R2DBC auto-configuration stay out of each other's way.
+ */
+@Configuration
+@ConditionalOnProperty(name = "batch.reactive.enabled", havingValue = "true")
+public class ReactiveConfig {
+
+    @Value("${batch.reactive.url:r2dbc:postgresql://localhost:5432/accountingdb}")
+    private String url;
+
+    @Value("${batch.reactive.username:postgres}")
+    private String username;
+
+    @Value("${batch.reactive.password:postgres}")
+    private String password;
+
+    // Connections shared by the streaming read and the concurrent write batches
+    @Value("${batch.reactive.pool.size:4}")
+    private int poolSize;
+
+    // Rows per batched UPDATE statement
+    @Value("${batch.reactive.batch.size:1000}")
+    private int batchSize;
+
+    // Rows requested from the server per round trip while streaming
+    @Value("${batch.reactive.fetch.size:10000}")
+    private int fetchSize;
+
+    // Write batches in flight at once
+    @Value("${batch.reactive.write.concurrency:2}")
+    private int writeConcurrency;
+
+    @Bean(destroyMethod = "close")
+    public ReactiveAddressEngine reactiveAddressEngine(AddressItemProcessor processor) {
+        return new ReactiveAddressEngine(ReactiveAddressEngine.connectionPool(url, username, password, poolSize),
+                processor, batchSize, fetchSize, writeConcurrency);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.accouting.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tracks how far the read replica is behind the primary. The lag is sampled at most once per
+ * check interval by whichever thread asks first; if the replica is too far behind or cannot be
+ * reached, reads are routed back to the primary until the next successful check.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // Milliseconds since the last replayed transaction, but 0 once everything received has been
+    // replayed: on an idle primary the last replay timestamp ages without the replica falling behind.
+    // Also 0 when the replica is not a streaming standby.
+    private static final String POSTGRES_LAG_QUERY =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() IS NULL "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0) END";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+    private final String lagQuery;
+    private final AtomicBoolean checking = new AtomicBoolean();
+
+    private volatile boolean replicaUsable = true;
+    private volatile long lastCheckMillis;
+    private volatile long lastLagMillis;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMillis, long checkIntervalMillis,
+                             String lagQuery) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMillis = maxLagMillis;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? defaultLagQuery(replica) : lagQuery;
+        Gauge.builder("accounting.replica.lag.ms", this, monitor -> monitor.lastLagMillis)
+                .description("Last measured replication lag of the read replica")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("accounting.replica.usable", this, monitor -> monitor.replicaUsable ? 1 : 0)
+                .description("1 when reads are routed to the replica, 0 when they fall back to the primary")
+                .register(Metrics.globalRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        long now = System.currentTimeMillis();
+        if (now - lastCheckMillis >= checkIntervalMillis && checking.compareAndSet(false, true)) {
+            try {
+                lastCheckMillis = now;
+                refresh();
+            } finally {
+                checking.set(false);
+            }
+        }
+        return replicaUsable;
+    }
+
+    /**
+     * Wait until the replica has replayed everything committed on the primary so far, so that a
+     * read right after a write sees it. Only PostgreSQL streaming replicas report positions;
+     * elsewhere this falls back to the lag check.
+     *
+     * @return true if reads may go to the replica
+     */
+    public boolean awaitCatchUp(Duration timeout) {
+        try {
+            if (DatabaseType.fromMetaData(replica) != DatabaseType.POSTGRES) {
+                return isReplicaUsable();
+            }
+            String primaryLsn = new JdbcTemplate(primary).queryForObject("SELECT pg_current_wal_lsn()::text", String.class);
+            JdbcTemplate replicaTemplate = new JdbcTemplate(replica);
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (true) {
+                Long behind = replicaTemplate.queryForObject(
+                        "SELECT pg_wal_lsn_diff(?::pg_lsn, pg_last_wal_replay_lsn())::bigint", Long.class, primaryLsn);
+                if (behind == null) {
+                    // Not a streaming standby, nothing to wait for
+                    return isReplicaUsable();
+                }
+                if (behind <= 0) {
+                    return true;
+                }
+                if (System.nanoTime() > deadline) {
+                    log.info("Replica still {} bytes behind after {}, reading from primary", behind, timeout);
+                    return false;
+                }
+                Thread.sleep(50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.warn("Could not compare replica position with primary, reading from primary", e);
+            return false;
+        }
+    }
+
+    private void refresh() {
+        boolean wasUsable = replicaUsable;
+        try {
+            Number lag = new JdbcTemplate(replica).queryForObject(lagQuery, Number.class);
+            lastLagMillis = lag == null ? 0 : lag.longValue();
+            replicaUsable = lastLagMillis <= maxLagMillis;
+        } catch (Exception e) {
+            replicaUsable = false;
+            if (wasUsable) {
+                log.warn("Replica lag check failed, routing reads to primary", e);
+            }
+            return;
+        }
+        if (wasUsable != replicaUsable) {
+            log.info("Replica lag {} ms (limit {} ms), routing reads to {}",
+                    lastLagMillis, maxLagMillis, replicaUsable ? "replica" : "primary");
+        }
+    }
+
+    private static String defaultLagQuery(DataSource replica) {
+        try {
+            if (DatabaseType.fromMetaData(replica) == DatabaseType.POSTGRES) {
+                return POSTGRES_LAG_QUERY;
+            }
+        } catch (Exception e) {
+            log.warn("Could not determine replica database type, assuming no replication lag", e);
+        }
+        return "SELECT 0";
+    }
+}
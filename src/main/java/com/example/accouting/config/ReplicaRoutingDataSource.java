@@ -0,0 +1,65 @@
+package com.example.accouting.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Read-only datasource that uses the replica while it is within the allowed lag and the
+ * primary otherwise. The choice is made per connection, unless a scan has pinned the route:
+ * then every connection goes to the same side until the last pin is released, so the pages of
+ * one scan never mix replica and primary snapshots.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final Object pinLock = new Object();
+    private int pins;
+    private volatile String pinnedKey;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.put(REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    /**
+     * Decide the route once and keep it until {@link #release()}. Pins nest: concurrent scans
+     * share the route chosen by the first one.
+     */
+    public void pin() {
+        synchronized (pinLock) {
+            if (pins++ == 0) {
+                pinnedKey = currentRoute();
+            }
+        }
+    }
+
+    public void release() {
+        synchronized (pinLock) {
+            if (pins > 0 && --pins == 0) {
+                pinnedKey = null;
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String pinned = pinnedKey;
+        return pinned != null ? pinned : currentRoute();
+    }
+
+    private String currentRoute() {
+        return lagMonitor.isReplicaUsable() ? REPLICA : PRIMARY;
+    }
+}
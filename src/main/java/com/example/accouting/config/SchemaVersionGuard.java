@@ -0,0 +1,82 @@
+package com.example.accouting.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Lets startup skip Hibernate schema introspection when the database already has the schema
+ * version this build expects. The version is recorded in accounting_schema_version after a
+ * startup that ran DDL; bump SCHEMA_VERSION whenever the entity mapping or indexes change.
+ */
+public class SchemaVersionGuard implements ApplicationListener<ContextRefreshedEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaVersionGuard.class);
+
+    public static final String SCHEMA_VERSION = "2";
+
+    private final DataSource dataSource;
+
+    private final boolean skipWhenCurrent;
+
+    private volatile boolean recordAfterStartup;
+
+    private volatile boolean schemaCurrent;
+
+    public SchemaVersionGuard(DataSource dataSource, boolean skipWhenCurrent) {
+        this.dataSource = dataSource;
+        this.skipWhenCurrent = skipWhenCurrent;
+    }
+
+    /**
+     * @return "none" if the schema is known to be current and skipping is enabled, otherwise the configured value
+     */
+    public String resolveDdlAuto(String configured) {
+        if ("none".equals(configured)) {
+            return configured;
+        }
+        if (skipWhenCurrent && SCHEMA_VERSION.equals(currentVersion())) {
+            schemaCurrent = true;
+            log.info("Schema version {} is current, skipping schema DDL checks", SCHEMA_VERSION);
+            return "none";
+        }
+        recordAfterStartup = true;
+        return configured;
+    }
+
+    public boolean isSchemaCurrent() {
+        return schemaCurrent;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (!recordAfterStartup) {
+            return;
+        }
+        recordAfterStartup = false;
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS accounting_schema_version (version VARCHAR(64) NOT NULL)");
+            jdbcTemplate.update("DELETE FROM accounting_schema_version");
+            jdbcTemplate.update("INSERT INTO accounting_schema_version (version) VALUES (?)", SCHEMA_VERSION);
+        } catch (Exception e) {
+            log.warn("Could not record schema version {}", SCHEMA_VERSION, e);
+        }
+    }
+
+    private String currentVersion() {
+        try {
+            List<String> versions = new JdbcTemplate(dataSource)
+                    .queryForList("SELECT version FROM accounting_schema_version", String.class);
+            return versions.isEmpty() ? null : versions.get(0);
+        } catch (Exception e) {
+            // Table does not exist yet
+            return null;
+        }
+    }
+}
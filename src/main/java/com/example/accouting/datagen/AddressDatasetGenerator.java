@@ -0,0 +1,62 @@
+package com.example.accouting.datagen;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic address row generator. Rows are produced in fixed-size blocks, each with its own
+ * random stream derived from the seed, so blocks can be generated in parallel and in any order
+ * while the overall dataset stays reproducible.
+ */
+public class AddressDatasetGenerator {
+
+    /**
+     * Receives generated rows without allocating an Address per row
+     */
+    @FunctionalInterface
+    public interface RowSink {
+        void accept(String orgID, String aicGroupID, String accountID) throws Exception;
+    }
+
+    private final DatasetSpec spec;
+    private final ZipfSampler orgSampler;
+    private final ZipfSampler aicGroupSampler;
+    private final ZipfSampler accountSampler;
+
+    public AddressDatasetGenerator(DatasetSpec spec) {
+        this.spec = spec;
+        this.orgSampler = new ZipfSampler(spec.getOrgCount(), spec.getOrgSkew());
+        this.aicGroupSampler = new ZipfSampler(spec.getAicGroupCount(), spec.getAicGroupSkew());
+        this.accountSampler = new ZipfSampler(spec.getAccountCount(), spec.getAccountSkew());
+    }
+
+    /**
+     * Generate all rows of one block. Clusters never span blocks.
+     *
+     * @return number of rows generated
+     */
+    public int generateBlock(int blockIndex, RowSink sink) throws Exception {
+        long firstRow = (long) blockIndex * spec.getBlockSize();
+        int rowsInBlock = (int) Math.min(spec.getBlockSize(), spec.getRows() - firstRow);
+        if (rowsInBlock <= 0) {
+            return 0;
+        }
+
+        SplittableRandom random = new SplittableRandom(spec.getSeed() ^ (blockIndex * 0x9E3779B97F4A7C15L));
+        int generated = 0;
+        while (generated < rowsInBlock) {
+            int clusterSize = Math.min(
+                    spec.getClusterSizeDistribution().sample(random, spec.getMeanClusterSize()),
+                    rowsInBlock - generated);
+            String aicGroupID = "G" + aicGroupSampler.sample(random);
+            for (int i = 0; i < clusterSize; i++) {
+                sink.accept("org" + orgSampler.sample(random), aicGroupID, "AC" + accountSampler.sample(random));
+            }
+            generated += clusterSize;
+        }
+        return generated;
+    }
+
+    public DatasetSpec getSpec() {
+        return spec;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.accouting.datagen;
+
+import com.example.accouting.support.jdbc.PostgresJdbc;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads a generated dataset into the address table using several connections in parallel.
+ * PostgreSQL uses COPY FROM STDIN; other databases (H2) use batched JDBC inserts.
+ */
+public class BulkAddressLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkAddressLoader.class);
+
+    private static final String COPY_SQL =
+            "COPY address (org_id, aic_group_id, account_id) FROM STDIN WITH (FORMAT text)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO address (org_id, aic_group_id, account_id) VALUES (?, ?, ?)";
+
+    private final DataSource dataSource;
+
+    public BulkAddressLoader(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Check that the JPA-managed address table exists, optionally emptying it
+     */
+    public void prepareTable(boolean truncate) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            try {
+                statement.execute("SELECT id FROM address WHERE 1 = 0");
+            } catch (SQLException e) {
+                throw new IllegalStateException(
+                        "The address table does not exist; start the application once so that it is created", e);
+            }
+            if (truncate) {
+                statement.execute("TRUNCATE TABLE address");
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+        }
+    }
+
+    /**
+     * Generate and load the whole dataset described by the spec
+     *
+     * @return number of rows loaded
+     */
+    public long load(DatasetSpec spec) throws Exception {
+        AddressDatasetGenerator generator = new AddressDatasetGenerator(spec);
+        int blockCount = spec.blockCount();
+        int threads = Math.max(1, Math.min(spec.getThreads(), blockCount));
+        AtomicInteger nextBlock = new AtomicInteger();
+        AtomicInteger threadIndex = new AtomicInteger();
+        AtomicLong loaded = new AtomicLong();
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "datagen-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    try (Connection connection = dataSource.getConnection()) {
+                        connection.setAutoCommit(false);
+                        boolean postgres = PostgresJdbc.isPostgres(connection);
+                        int block;
+                        while ((block = nextBlock.getAndIncrement()) < blockCount) {
+                            long rows = postgres
+                                    ? copyBlock(connection, generator, block)
+                                    : insertBlock(connection, generator, block, spec.getBatchSize());
+                            connection.commit();
+                            long total = loaded.addAndGet(rows);
+                            if (block % 10 == 0) {
+                                log.info("Loaded {} of {} rows", total, spec.getRows());
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Loaded {} rows with {} threads in {} ms ({} rows/s)",
+                loaded.get(), threads, millis, millis == 0 ? loaded.get() : loaded.get() * 1000 / millis);
+        return loaded.get();
+    }
+
+    private long copyBlock(Connection connection, AddressDatasetGenerator generator, int block) throws Exception {
+        // Values are generated identifiers (letters and digits), so no text-format escaping is needed
+        StringBuilder buffer = new StringBuilder(generator.getSpec().getBlockSize() * 32);
+        generator.generateBlock(block, (orgID, aicGroupID, accountID) -> buffer
+                .append(orgID).append('\t')
+                .append(aicGroupID).append('\t')
+                .append(accountID).append('\n'));
+        return PostgresJdbc.copyIn(connection, COPY_SQL, new StringReader(buffer.toString()));
+    }
+
+    private long insertBlock(Connection connection, AddressDatasetGenerator generator, int block, int batchSize)
+            throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            int[] pending = {0};
+            int rows = generator.generateBlock(block, (orgID, aicGroupID, accountID) -> {
+                statement.setString(1, orgID);
+                statement.setString(2, aicGroupID);
+                statement.setString(3, accountID);
+                statement.addBatch();
+                if (++pending[0] == batchSize) {
+                    statement.executeBatch();
+                    pending[0] = 0;
+                }
+            });
+            if (pending[0] > 0) {
+                statement.executeBatch();
+            }
+            return rows;
+        }
+    }
+}
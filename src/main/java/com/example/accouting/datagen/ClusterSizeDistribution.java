@@ -0,0 +1,51 @@
+package com.example.accouting.datagen;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distribution of the number of rows that share an AIC group within one generated cluster
+ */
+public enum ClusterSizeDistribution {
+
+    // Every cluster has exactly the mean size
+    FIXED {
+        @Override
+        public int sample(SplittableRandom random, double mean) {
+            return Math.max(1, (int) Math.round(mean));
+        }
+    },
+
+    // Sizes spread evenly between 1 and 2 * mean - 1
+    UNIFORM {
+        @Override
+        public int sample(SplittableRandom random, double mean) {
+            int upper = Math.max(1, (int) Math.round(2 * mean - 1));
+            return 1 + random.nextInt(upper);
+        }
+    },
+
+    // Many small clusters with an exponential tail
+    GEOMETRIC {
+        @Override
+        public int sample(SplittableRandom random, double mean) {
+            if (mean <= 1) {
+                return 1;
+            }
+            double p = 1.0 / mean;
+            return 1 + (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+        }
+    },
+
+    // Heavy tail: a few very large clusters, Pareto with shape 2 scaled to the mean
+    POWER_LAW {
+        @Override
+        public int sample(SplittableRandom random, double mean) {
+            double shape = 2.0;
+            double scale = mean * (shape - 1) / shape;
+            double value = scale / Math.pow(1 - random.nextDouble(), 1 / shape);
+            return Math.max(1, (int) Math.min(Integer.MAX_VALUE, Math.round(value)));
+        }
+    };
+
+    public abstract int sample(SplittableRandom random, double mean);
+}
@@ -0,0 +1,82 @@
+package com.example.accouting.datagen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Standalone command line entry point for producing benchmark tables, for example:
+ * <pre>
+ * java -cp target/Accouting-0.0.1-SNAPSHOT.jar \
+ *      -Dloader.main=com.example.accouting.datagen.DatasetGenerator \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher \
+ *      --url=jdbc:postgresql://localhost:5432/accountingdb --user=postgres --password=postgres \
+ *      --rows=100000000 --orgs=5000 --org-skew=1.1 --groups=2000000 --accounts=20000000 \
+ *      --cluster-size=POWER_LAW --mean-cluster-size=8 --seed=7 --threads=16 --truncate
+ * </pre>
+ */
+public class DatasetGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        String url = options.getOrDefault("url", "jdbc:postgresql://localhost:5432/accountingdb");
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                url,
+                options.getOrDefault("user", "postgres"),
+                options.getOrDefault("password", "postgres"));
+
+        DatasetSpec spec = toSpec(options);
+        log.info("Generating dataset into {}: {}", url, spec);
+
+        BulkAddressLoader loader = new BulkAddressLoader(dataSource);
+        loader.prepareTable(options.containsKey("truncate"));
+        loader.load(spec);
+    }
+
+    /**
+     * Build a spec from --key=value options, keeping defaults for anything not given
+     */
+    public static DatasetSpec toSpec(Map<String, String> options) {
+        DatasetSpec spec = new DatasetSpec();
+        if (options.containsKey("rows")) spec.setRows(Long.parseLong(options.get("rows")));
+        if (options.containsKey("orgs")) spec.setOrgCount(Integer.parseInt(options.get("orgs")));
+        if (options.containsKey("org-skew")) spec.setOrgSkew(Double.parseDouble(options.get("org-skew")));
+        if (options.containsKey("groups")) spec.setAicGroupCount(Integer.parseInt(options.get("groups")));
+        if (options.containsKey("group-skew")) spec.setAicGroupSkew(Double.parseDouble(options.get("group-skew")));
+        if (options.containsKey("accounts")) spec.setAccountCount(Integer.parseInt(options.get("accounts")));
+        if (options.containsKey("account-skew")) spec.setAccountSkew(Double.parseDouble(options.get("account-skew")));
+        if (options.containsKey("cluster-size")) {
+            spec.setClusterSizeDistribution(ClusterSizeDistribution.valueOf(options.get("cluster-size").toUpperCase()));
+        }
+        if (options.containsKey("mean-cluster-size")) {
+            spec.setMeanClusterSize(Double.parseDouble(options.get("mean-cluster-size")));
+        }
+        if (options.containsKey("seed")) spec.setSeed(Long.parseLong(options.get("seed")));
+        if (options.containsKey("block-size")) spec.setBlockSize(Integer.parseInt(options.get("block-size")));
+        if (options.containsKey("threads")) spec.setThreads(Integer.parseInt(options.get("threads")));
+        if (options.containsKey("batch-size")) spec.setBatchSize(Integer.parseInt(options.get("batch-size")));
+        return spec;
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return options;
+    }
+}
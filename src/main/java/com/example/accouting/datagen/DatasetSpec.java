@@ -0,0 +1,37 @@
+package com.example.accouting.datagen;
+
+import lombok.Data;
+
+/**
+ * Shape of a generated address dataset. Cardinalities are upper bounds on distinct values;
+ * skew is the Zipf exponent used to pick values (0 = uniform, ~1 = realistic heavy hitters).
+ */
+@Data
+public class DatasetSpec {
+
+    private long rows = 1_000_000;
+
+    private int orgCount = 1_000;
+    private double orgSkew = 1.0;
+
+    private int aicGroupCount = 100_000;
+    private double aicGroupSkew = 0.8;
+
+    private int accountCount = 500_000;
+    private double accountSkew = 0.5;
+
+    // Rows in a cluster share one AIC group
+    private ClusterSizeDistribution clusterSizeDistribution = ClusterSizeDistribution.GEOMETRIC;
+    private double meanClusterSize = 5.0;
+
+    // Same seed and block size always produce the same rows, regardless of thread count
+    private long seed = 42L;
+    private int blockSize = 100_000;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int batchSize = 5_000;
+
+    public int blockCount() {
+        return (int) ((rows + blockSize - 1) / blockSize);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.accouting.export;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Exports the final (id, orgID, aicGroupID, accountID, tempID) assignment to a columnar file.
+ * Rows are streamed from the database straight into the writer, and the file is written under
+ * a temporary name and moved into place, so consumers never see a partial export.
+ */
+public class ExportTempIdsTasklet implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportTempIdsTasklet.class);
+
+    private static final String EXPORT_SQL =
+            "SELECT id, org_id, aic_group_id, account_id, temp_id FROM address ORDER BY id";
+
+    private final DataSource dataSource;
+    private final Path exportPath;
+
+    public ExportTempIdsTasklet(DataSource dataSource, Path exportPath) {
+        this.dataSource = dataSource;
+        this.exportPath = exportPath;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        long start = System.nanoTime();
+        Path directory = exportPath.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, exportPath.getFileName().toString(), ".tmp");
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(10000);
+        // The PostgreSQL driver only honours the fetch size with autocommit off, otherwise it
+        // buffers the whole result; a read-only transaction on the export connection keeps it streaming
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(true);
+        long rows;
+        try (TempIdColumnarWriter writer = new TempIdColumnarWriter(temporary)) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(EXPORT_SQL, rs -> {
+                try {
+                    writer.write(rs.getLong("id"), rs.getString("org_id"), rs.getString("aic_group_id"),
+                            rs.getString("account_id"), rs.getString("temp_id"));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+            rows = writer.getTotalRows();
+        } catch (RuntimeException | IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, exportPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        contribution.incrementWriteCount(rows);
+        log.info("Exported {} rows to {} ({} bytes) in {} ms",
+                rows, exportPath, Files.size(exportPath), (System.nanoTime() - start) / 1_000_000);
+        return RepeatStatus.FINISHED;
+    }
+}
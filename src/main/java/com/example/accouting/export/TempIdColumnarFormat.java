@@ -0,0 +1,62 @@
+package com.example.accouting.export;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of the compact columnar tempID export (.tidc):
+ * <pre>
+ * header : magic "TIDC", int version, int columnCount, per column (short length, UTF-8 name)
+ * block* : int rowCount, int uncompressedLength, int compressedLength, deflated payload
+ *          payload = id column    : zigzag varint delta from the previous id
+ *                    each string column: varint dictionarySize, dictionary entries
+ *                                        (varint byteLength, UTF-8 bytes), then one varint code per row
+ *                                        (0 = null, n = dictionary entry n - 1)
+ * footer : int -1 (end marker), long totalRows, int blockCount, magic "TIDC"
+ * </pre>
+ * Dictionaries are per block, so both writer and reader only ever hold one block in memory.
+ */
+final class TempIdColumnarFormat {
+
+    static final int MAGIC = 0x54494443; // "TIDC"
+
+    static final int VERSION = 1;
+
+    static final int END_OF_BLOCKS = -1;
+
+    static final String[] COLUMNS = {"id", "orgID", "aicGroupID", "accountID", "tempID"};
+
+    static final int STRING_COLUMNS = 4;
+
+    private TempIdColumnarFormat() {
+    }
+
+    static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
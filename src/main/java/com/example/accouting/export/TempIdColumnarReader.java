@@ -0,0 +1,161 @@
+package com.example.accouting.export;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads files written by {@link TempIdColumnarWriter}, one block at a time
+ */
+public class TempIdColumnarReader implements Closeable {
+
+    /**
+     * Receives decoded rows
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        void accept(long id, String orgID, String aicGroupID, String accountID, String tempID) throws IOException;
+    }
+
+    private final FileChannel channel;
+    private final List<String> columnNames = new ArrayList<>();
+    private final Inflater inflater = new Inflater();
+
+    public TempIdColumnarReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        readHeader();
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Decode every row in file order
+     *
+     * @return number of rows read
+     */
+    public long forEach(RowHandler handler) throws IOException {
+        long rows = 0;
+        int blocks = 0;
+        while (true) {
+            ByteBuffer blockHeader = readFully(4);
+            int rowCount = blockHeader.getInt();
+            if (rowCount == TempIdColumnarFormat.END_OF_BLOCKS) {
+                ByteBuffer footer = readFully(16);
+                long totalRows = footer.getLong();
+                int blockCount = footer.getInt();
+                if (footer.getInt() != TempIdColumnarFormat.MAGIC || totalRows != rows || blockCount != blocks) {
+                    throw new IOException("Corrupt tempID export: footer does not match content");
+                }
+                return rows;
+            }
+            ByteBuffer lengths = readFully(8);
+            int uncompressedLength = lengths.getInt();
+            int compressedLength = lengths.getInt();
+            ByteBuffer payload = inflate(readFully(compressedLength), uncompressedLength);
+            decodeBlock(payload, rowCount, handler);
+            rows += rowCount;
+            blocks++;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        channel.close();
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer fixed = readFully(12);
+        if (fixed.getInt() != TempIdColumnarFormat.MAGIC) {
+            throw new IOException("Not a tempID export file");
+        }
+        int version = fixed.getInt();
+        if (version != TempIdColumnarFormat.VERSION) {
+            throw new IOException("Unsupported tempID export version " + version);
+        }
+        int columnCount = fixed.getInt();
+        for (int i = 0; i < columnCount; i++) {
+            ByteBuffer length = readFully(2);
+            int nameLength = length.getShort() & 0xFFFF;
+            columnNames.add(StandardCharsets.UTF_8.decode(readFully(nameLength)).toString());
+        }
+    }
+
+    private void decodeBlock(ByteBuffer payload, int rowCount, RowHandler handler) throws IOException {
+        long[] ids = new long[rowCount];
+        long previousId = 0;
+        for (int row = 0; row < rowCount; row++) {
+            previousId += TempIdColumnarFormat.unZigZag(TempIdColumnarFormat.readVarLong(payload));
+            ids[row] = previousId;
+        }
+
+        String[][] dictionaries = new String[TempIdColumnarFormat.STRING_COLUMNS][];
+        int[][] codes = new int[TempIdColumnarFormat.STRING_COLUMNS][rowCount];
+        for (int column = 0; column < TempIdColumnarFormat.STRING_COLUMNS; column++) {
+            int size = (int) TempIdColumnarFormat.readVarLong(payload);
+            String[] dictionary = new String[size + 1];
+            for (int entry = 1; entry <= size; entry++) {
+                int length = (int) TempIdColumnarFormat.readVarLong(payload);
+                dictionary[entry] = new String(payload.array(), payload.position(), length, StandardCharsets.UTF_8);
+                payload.position(payload.position() + length);
+            }
+            dictionaries[column] = dictionary;
+            for (int row = 0; row < rowCount; row++) {
+                codes[column][row] = (int) TempIdColumnarFormat.readVarLong(payload);
+            }
+        }
+
+        for (int row = 0; row < rowCount; row++) {
+            handler.accept(ids[row],
+                    dictionaries[0][codes[0][row]],
+                    dictionaries[1][codes[1][row]],
+                    dictionaries[2][codes[2][row]],
+                    dictionaries[3][codes[3][row]]);
+        }
+    }
+
+    private ByteBuffer inflate(ByteBuffer compressed, int uncompressedLength) throws IOException {
+        byte[] output = new byte[uncompressedLength];
+        inflater.reset();
+        inflater.setInput(compressed.array(), 0, compressed.limit());
+        try {
+            int offset = 0;
+            while (offset < uncompressedLength && !inflater.finished()) {
+                int inflated = inflater.inflate(output, offset, uncompressedLength - offset);
+                // Nothing more can come out of a block whose compressed data ended early
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Corrupt tempID export: truncated block");
+                }
+                offset += inflated;
+            }
+            if (offset < uncompressedLength) {
+                throw new IOException("Corrupt tempID export: truncated block");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt tempID export block", e);
+        }
+        return ByteBuffer.wrap(output);
+    }
+
+    private ByteBuffer readFully(int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of tempID export file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.accouting.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Streams (id, orgID, aicGroupID, accountID, tempID) rows into the compact columnar format
+ * described in {@link TempIdColumnarFormat}. Rows are buffered one block at a time.
+ */
+public class TempIdColumnarWriter implements Closeable {
+
+    public static final int DEFAULT_BLOCK_ROWS = 65_536;
+
+    private final FileChannel channel;
+    private final int blockRows;
+    private final long[] ids;
+    private final String[][] columns;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+    private int rowsInBlock;
+    private long totalRows;
+    private int blockCount;
+    private boolean closed;
+
+    public TempIdColumnarWriter(Path path) throws IOException {
+        this(path, DEFAULT_BLOCK_ROWS);
+    }
+
+    public TempIdColumnarWriter(Path path, int blockRows) throws IOException {
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.blockRows = blockRows;
+        this.ids = new long[blockRows];
+        this.columns = new String[TempIdColumnarFormat.STRING_COLUMNS][blockRows];
+        writeHeader();
+    }
+
+    public void write(long id, String orgID, String aicGroupID, String accountID, String tempID) throws IOException {
+        ids[rowsInBlock] = id;
+        columns[0][rowsInBlock] = orgID;
+        columns[1][rowsInBlock] = aicGroupID;
+        columns[2][rowsInBlock] = accountID;
+        columns[3][rowsInBlock] = tempID;
+        rowsInBlock++;
+        totalRows++;
+        if (rowsInBlock == blockRows) {
+            flushBlock();
+        }
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (rowsInBlock > 0) {
+                flushBlock();
+            }
+            ByteBuffer footer = ByteBuffer.allocate(4 + 8 + 4 + 4);
+            footer.putInt(TempIdColumnarFormat.END_OF_BLOCKS)
+                    .putLong(totalRows)
+                    .putInt(blockCount)
+                    .putInt(TempIdColumnarFormat.MAGIC)
+                    .flip();
+            writeFully(footer);
+            channel.force(false);
+        } finally {
+            deflater.end();
+            channel.close();
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        ByteBuffer fixed = ByteBuffer.allocate(12)
+                .putInt(TempIdColumnarFormat.MAGIC)
+                .putInt(TempIdColumnarFormat.VERSION)
+                .putInt(TempIdColumnarFormat.COLUMNS.length);
+        header.write(fixed.array(), 0, 12);
+        for (String column : TempIdColumnarFormat.COLUMNS) {
+            byte[] name = column.getBytes(StandardCharsets.UTF_8);
+            header.write(name.length >>> 8);
+            header.write(name.length);
+            header.write(name, 0, name.length);
+        }
+        writeFully(ByteBuffer.wrap(header.toByteArray()));
+    }
+
+    private void flushBlock() throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(rowsInBlock * 8);
+
+        long previousId = 0;
+        for (int row = 0; row < rowsInBlock; row++) {
+            TempIdColumnarFormat.writeVarLong(payload, TempIdColumnarFormat.zigZag(ids[row] - previousId));
+            previousId = ids[row];
+        }
+        for (String[] column : columns) {
+            writeDictionaryColumn(payload, column);
+        }
+
+        byte[] uncompressed = payload.toByteArray();
+        deflater.reset();
+        deflater.setInput(uncompressed);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(uncompressed.length / 4 + 64);
+        byte[] buffer = new byte[64 * 1024];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(buffer);
+            compressed.write(buffer, 0, length);
+        }
+
+        ByteBuffer blockHeader = ByteBuffer.allocate(12)
+                .putInt(rowsInBlock)
+                .putInt(uncompressed.length)
+                .putInt(compressed.size());
+        blockHeader.flip();
+        writeFully(blockHeader);
+        writeFully(ByteBuffer.wrap(compressed.toByteArray()));
+
+        for (String[] column : columns) {
+            Arrays.fill(column, 0, rowsInBlock, null);
+        }
+        rowsInBlock = 0;
+        blockCount++;
+    }
+
+    private void writeDictionaryColumn(ByteArrayOutputStream payload, String[] values) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        int[] codes = new int[rowsInBlock];
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        for (int row = 0; row < rowsInBlock; row++) {
+            String value = values[row];
+            if (value == null) {
+                codes[row] = 0;
+                continue;
+            }
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                code = dictionary.size() + 1;
+                dictionary.put(value, code);
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                TempIdColumnarFormat.writeVarLong(entries, bytes.length);
+                entries.write(bytes, 0, bytes.length);
+            }
+            codes[row] = code;
+        }
+        TempIdColumnarFormat.writeVarLong(payload, dictionary.size());
+        entries.writeTo(payload);
+        for (int code : codes) {
+            TempIdColumnarFormat.writeVarLong(payload, code);
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
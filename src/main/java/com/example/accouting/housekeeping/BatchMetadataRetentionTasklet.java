@@ -0,0 +1,132 @@
+package com.example.accouting.housekeeping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Purges Spring Batch metadata of old job executions from the batch datasource.
+ *
+ * Executions created before the retention cutoff with one of the configured statuses are
+ * deleted in batches, children first (step execution contexts, step executions, job execution
+ * contexts, parameters, job executions), followed by job instances left without executions.
+ * Each call deletes one batch and returns CONTINUABLE, so every batch commits in its own step
+ * transaction and locks on the metadata tables stay short. Running executions are never
+ * purged as long as STARTED is not among the statuses.
+ */
+public class BatchMetadataRetentionTasklet implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchMetadataRetentionTasklet.class);
+
+    private static final String INDEX_SCRIPT = "schema/batch-metadata-indexes.sql";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final String tablePrefix;
+    private final Duration retention;
+    private final List<String> statuses;
+    private final int batchSize;
+    private final boolean installIndexes;
+
+    private final AtomicBoolean indexesInstalled = new AtomicBoolean();
+
+    private final Map<String, Counter> purgedCounters = new LinkedHashMap<>();
+
+    public BatchMetadataRetentionTasklet(DataSource dataSource, String tablePrefix, Duration retention,
+                                         Collection<BatchStatus> statuses, int batchSize, boolean installIndexes) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        if (statuses.isEmpty()) {
+            throw new IllegalArgumentException("At least one status must be eligible for retention");
+        }
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.dataSource = dataSource;
+        this.tablePrefix = tablePrefix;
+        this.retention = retention;
+        this.statuses = statuses.stream().map(BatchStatus::name).toList();
+        this.batchSize = batchSize;
+        this.installIndexes = installIndexes;
+        for (String table : List.of("STEP_EXECUTION_CONTEXT", "STEP_EXECUTION", "JOB_EXECUTION_CONTEXT",
+                "JOB_EXECUTION_PARAMS", "JOB_EXECUTION", "JOB_INSTANCE")) {
+            purgedCounters.put(table, Counter.builder("accounting.batch.metadata.purged.rows")
+                    .description("Rows purged from the Spring Batch metadata tables")
+                    .tag("table", tablePrefix + table)
+                    .register(Metrics.globalRegistry));
+        }
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) {
+        if (installIndexes && indexesInstalled.compareAndSet(false, true)) {
+            new ResourceDatabasePopulator(new ClassPathResource(INDEX_SCRIPT)).execute(dataSource);
+            log.info("Ensured indexes on the batch metadata tables");
+        }
+
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(retention));
+        List<Long> executionIds = jdbcTemplate.queryForList(
+                "SELECT JOB_EXECUTION_ID FROM " + tablePrefix + "JOB_EXECUTION "
+                        + "WHERE CREATE_TIME < :cutoff AND STATUS IN (:statuses) "
+                        + "ORDER BY JOB_EXECUTION_ID FETCH FIRST " + batchSize + " ROWS ONLY",
+                new MapSqlParameterSource("cutoff", cutoff).addValue("statuses", statuses), Long.class);
+        if (!executionIds.isEmpty()) {
+            long purged = purgeExecutions(executionIds);
+            contribution.incrementWriteCount(purged);
+            log.info("Purged {} job executions (up to id {}) and {} metadata rows in total",
+                    executionIds.size(), executionIds.get(executionIds.size() - 1), purged);
+            return RepeatStatus.CONTINUABLE;
+        }
+
+        List<Long> instanceIds = jdbcTemplate.queryForList(
+                "SELECT JOB_INSTANCE_ID FROM " + tablePrefix + "JOB_INSTANCE i WHERE NOT EXISTS "
+                        + "(SELECT 1 FROM " + tablePrefix + "JOB_EXECUTION e WHERE e.JOB_INSTANCE_ID = i.JOB_INSTANCE_ID) "
+                        + "ORDER BY JOB_INSTANCE_ID FETCH FIRST " + batchSize + " ROWS ONLY",
+                new MapSqlParameterSource(), Long.class);
+        if (!instanceIds.isEmpty()) {
+            int purged = delete("JOB_INSTANCE", "JOB_INSTANCE_ID IN (:ids)", instanceIds);
+            contribution.incrementWriteCount(purged);
+            log.info("Purged {} job instances without executions", purged);
+            return RepeatStatus.CONTINUABLE;
+        }
+        return RepeatStatus.FINISHED;
+    }
+
+    private long purgeExecutions(List<Long> executionIds) {
+        long purged = 0;
+        purged += delete("STEP_EXECUTION_CONTEXT", "STEP_EXECUTION_ID IN (SELECT STEP_EXECUTION_ID FROM "
+                + tablePrefix + "STEP_EXECUTION WHERE JOB_EXECUTION_ID IN (:ids))", executionIds);
+        purged += delete("STEP_EXECUTION", "JOB_EXECUTION_ID IN (:ids)", executionIds);
+        purged += delete("JOB_EXECUTION_CONTEXT", "JOB_EXECUTION_ID IN (:ids)", executionIds);
+        purged += delete("JOB_EXECUTION_PARAMS", "JOB_EXECUTION_ID IN (:ids)", executionIds);
+        purged += delete("JOB_EXECUTION", "JOB_EXECUTION_ID IN (:ids)", executionIds);
+        return purged;
+    }
+
+    private int delete(String table, String condition, List<Long> ids) {
+        int deleted = jdbcTemplate.update("DELETE FROM " + tablePrefix + table + " WHERE " + condition,
+                new MapSqlParameterSource("ids", new ArrayList<>(ids)));
+        purgedCounters.get(table).increment(deleted);
+        return deleted;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.accouting.jfr;
+
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+
+/**
+ * Shared constants and helpers for the accounting JFR events.
+ * All events are disabled by default and only enabled by a recording that uses
+ * jfr/accounting.jfc (or equivalent settings), so they cost nothing in normal runs.
+ */
+public final class AccountingEvents {
+
+    public static final String NAMESPACE = "com.example.accouting.";
+
+    public static final String CATEGORY = "Accounting";
+
+    private AccountingEvents() {
+    }
+
+    /**
+     * @return the job execution the current thread is working for, or -1 outside a step
+     */
+    public static long currentJobExecutionId() {
+        StepContext context = StepSynchronizationManager.getContext();
+        if (context == null || context.getStepExecution().getJobExecutionId() == null) {
+            return -1;
+        }
+        return context.getStepExecution().getJobExecutionId();
+    }
+
+    /**
+     * @return the step the current thread is working for, or null outside a step
+     */
+    public static String currentStepName() {
+        StepContext context = StepSynchronizationManager.getContext();
+        return context == null ? null : context.getStepName();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.accouting.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name(AccountingEvents.NAMESPACE + "CacheLookup")
+@Label("Account Cache Lookup")
+@Description("Known-account check in the processor; slow ones went to the database")
+@Category({AccountingEvents.CATEGORY, "Process"})
+@Enabled(false)
+@Threshold("1 ms")
+@StackTrace(false)
+public class CacheLookupEvent extends Event {
+
+    @Label("Job Execution")
+    public long jobExecutionId;
+
+    @Label("Known Account")
+    public boolean known;
+}
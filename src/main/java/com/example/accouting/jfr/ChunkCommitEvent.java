@@ -0,0 +1,29 @@
+package com.example.accouting.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name(AccountingEvents.NAMESPACE + "ChunkCommit")
+@Label("Chunk")
+@Description("One chunk from the first read to the transaction commit")
+@Category({AccountingEvents.CATEGORY, "Chunk"})
+@Enabled(false)
+@Threshold("20 ms")
+@StackTrace(false)
+public class ChunkCommitEvent extends Event {
+
+    @Label("Job Execution")
+    public long jobExecutionId;
+
+    @Label("Step")
+    public String step;
+
+    @Label("Committed")
+    public boolean committed;
+}
@@ -0,0 +1,27 @@
+package com.example.accouting.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(AccountingEvents.NAMESPACE + "ClusterMerge")
+@Label("Cluster Merge")
+@Description("Accounts linked into a shared tempID and written to the database")
+@Category({AccountingEvents.CATEGORY, "Process"})
+@Enabled(false)
+@StackTrace(false)
+public class ClusterMergeEvent extends Event {
+
+    @Label("Job Execution")
+    public long jobExecutionId;
+
+    @Label("TempID")
+    public String tempId;
+
+    @Label("Accounts")
+    public int accounts;
+}
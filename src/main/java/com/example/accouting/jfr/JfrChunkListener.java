@@ -0,0 +1,48 @@
+package com.example.accouting.jfr;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+/**
+ * Reports each chunk, including its transaction commit, as a {@link ChunkCommitEvent}
+ */
+public class JfrChunkListener implements ChunkListener {
+
+    // Chunks of a multi-threaded step start and finish on the same worker thread
+    private final ThreadLocal<ChunkCommitEvent> currentEvent = new ThreadLocal<>();
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        ChunkCommitEvent event = new ChunkCommitEvent();
+        if (!event.isEnabled()) {
+            return;
+        }
+        event.begin();
+        currentEvent.set(event);
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        finish(context, true);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        finish(context, false);
+    }
+
+    private void finish(ChunkContext context, boolean committed) {
+        ChunkCommitEvent event = currentEvent.get();
+        if (event == null) {
+            return;
+        }
+        currentEvent.remove();
+        event.end();
+        if (event.shouldCommit()) {
+            event.jobExecutionId = context.getStepContext().getStepExecution().getJobExecutionId();
+            event.step = context.getStepContext().getStepName();
+            event.committed = committed;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.accouting.jfr;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+
+/**
+ * Decorates an item writer so every chunk write is reported as a {@link WriteBatchEvent}
+ */
+public class JfrItemWriter<T> implements ItemWriter<T> {
+
+    private final ItemWriter<T> delegate;
+
+    public JfrItemWriter(ItemWriter<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(Chunk<? extends T> chunk) throws Exception {
+        WriteBatchEvent event = new WriteBatchEvent();
+        event.begin();
+        delegate.write(chunk);
+        event.end();
+        if (event.shouldCommit()) {
+            event.jobExecutionId = AccountingEvents.currentJobExecutionId();
+            event.step = AccountingEvents.currentStepName();
+            event.rows = chunk.size();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.accouting.jfr;
+
+import org.springframework.batch.item.database.JdbcPagingItemReader;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * JdbcPagingItemReader that reports every page query as a {@link PageFetchEvent}
+ */
+public class JfrJdbcPagingItemReader<T> extends JdbcPagingItemReader<T> {
+
+    private String readerName = "reader";
+
+    private ToLongFunction<? super T> rowSizeEstimator = row -> 0;
+
+    @Override
+    public void setName(String name) {
+        super.setName(name);
+        this.readerName = name;
+    }
+
+    /**
+     * Estimate of the bytes transferred per row, only evaluated when an event is recorded
+     */
+    public void setRowSizeEstimator(ToLongFunction<? super T> rowSizeEstimator) {
+        this.rowSizeEstimator = rowSizeEstimator;
+    }
+
+    @Override
+    protected void doReadPage() {
+        PageFetchEvent event = new PageFetchEvent();
+        event.begin();
+        super.doReadPage();
+        event.end();
+        if (event.shouldCommit()) {
+            event.jobExecutionId = AccountingEvents.currentJobExecutionId();
+            event.reader = readerName;
+            event.rows = results.size();
+            long bytes = 0;
+            for (T row : results) {
+                bytes += rowSizeEstimator.applyAsLong(row);
+            }
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.accouting.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Summarizes the accounting events of a JFR recording into per-phase latency histograms,
+ * for example:
+ * <pre>
+ * java -XX:StartFlightRecording=settings=src/main/resources/jfr/accounting.jfc,filename=run.jfr -jar app.jar
+ * java -cp target/Accouting-0.0.1-SNAPSHOT.jar \
+ *      -Dloader.main=com.example.accouting.jfr.JfrRecordingSummary \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher run.jfr --job=42
+ * </pre>
+ * Without --job all job executions in the recording are included.
+ */
+public class JfrRecordingSummary {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: JfrRecordingSummary <recording.jfr> [--job=<jobExecutionId>]");
+            System.exit(2);
+        }
+        Long jobExecutionId = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--job=")) {
+                jobExecutionId = Long.parseLong(args[i].substring("--job=".length()));
+            }
+        }
+        Map<String, PhaseStatistics> phases = summarize(Path.of(args[0]), jobExecutionId);
+        phases.forEach((phase, statistics) -> System.out.println(statistics.format(phase)));
+    }
+
+    /**
+     * @param jobExecutionId only include events of this job execution, or all when null
+     * @return statistics per event type, keyed by the event name without the namespace
+     */
+    public static Map<String, PhaseStatistics> summarize(Path recording, Long jobExecutionId) throws IOException {
+        Map<String, PhaseStatistics> phases = new TreeMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String name = event.getEventType().getName();
+                if (!name.startsWith(AccountingEvents.NAMESPACE)) {
+                    continue;
+                }
+                if (jobExecutionId != null && event.hasField("jobExecutionId")
+                        && event.getLong("jobExecutionId") != jobExecutionId) {
+                    continue;
+                }
+                phases.computeIfAbsent(name.substring(AccountingEvents.NAMESPACE.length()),
+                        phase -> new PhaseStatistics()).add(event);
+            }
+        }
+        return phases;
+    }
+
+    /**
+     * Latencies of one event type, with power-of-two millisecond buckets
+     */
+    public static class PhaseStatistics {
+
+        private static final int BUCKETS = 20;
+
+        private long[] durations = new long[1024];
+        private int count;
+        private long rows;
+        private long bytes;
+        private final long[] histogram = new long[BUCKETS];
+
+        void add(RecordedEvent event) {
+            long nanos = event.getDuration().toNanos();
+            if (count == durations.length) {
+                durations = Arrays.copyOf(durations, count * 2);
+            }
+            durations[count++] = nanos;
+            histogram[bucketOf(nanos)]++;
+            if (event.hasField("rows")) {
+                rows += event.getInt("rows");
+            }
+            if (event.hasField("bytes")) {
+                bytes += event.getLong("bytes");
+            }
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long[] getHistogram() {
+            return histogram.clone();
+        }
+
+        /**
+         * @return the given percentile of the recorded durations in milliseconds
+         */
+        public double percentileMillis(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(durations, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))] / 1_000_000.0;
+        }
+
+        String format(String phase) {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("%s: %d events, p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms",
+                    phase, count, percentileMillis(50), percentileMillis(90), percentileMillis(99),
+                    percentileMillis(100)));
+            if (rows > 0) {
+                out.append(String.format(", %d rows", rows));
+            }
+            if (bytes > 0) {
+                out.append(String.format(", %d KiB", bytes / 1024));
+            }
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                if (histogram[bucket] > 0) {
+                    out.append(String.format("%n  %-16s %d", bucketLabel(bucket), histogram[bucket]));
+                }
+            }
+            return out.toString();
+        }
+
+        // Bucket 0 is < 1 ms, bucket n is [2^(n-1), 2^n) ms
+        static int bucketOf(long nanos) {
+            long millis = nanos / 1_000_000;
+            int bucket = millis == 0 ? 0 : 64 - Long.numberOfLeadingZeros(millis);
+            return Math.min(bucket, BUCKETS - 1);
+        }
+
+        private static String bucketLabel(int bucket) {
+            if (bucket == 0) {
+                return "< 1 ms";
+            }
+            if (bucket == BUCKETS - 1) {
+                return ">= " + (1L << (bucket - 1)) + " ms";
+            }
+            return (1L << (bucket - 1)) + "-" + (1L << bucket) + " ms";
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.accouting.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name(AccountingEvents.NAMESPACE + "PageFetch")
+@Label("Reader Page Fetch")
+@Description("One page query of a paging item reader")
+@Category({AccountingEvents.CATEGORY, "Read"})
+@Enabled(false)
+@Threshold("10 ms")
+@StackTrace(false)
+public class PageFetchEvent extends Event {
+
+    @Label("Job Execution")
+    public long jobExecutionId;
+
+    @Label("Reader")
+    public String reader;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Estimated Bytes")
+    @DataAmount
+    public long bytes;
+}
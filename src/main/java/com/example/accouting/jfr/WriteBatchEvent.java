@@ -0,0 +1,29 @@
+package com.example.accouting.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name(AccountingEvents.NAMESPACE + "WriteBatch")
+@Label("Writer Batch")
+@Description("One chunk handed to the item writer")
+@Category({AccountingEvents.CATEGORY, "Write"})
+@Enabled(false)
+@Threshold("10 ms")
+@StackTrace(false)
+public class WriteBatchEvent extends Event {
+
+    @Label("Job Execution")
+    public long jobExecutionId;
+
+    @Label("Step")
+    public String step;
+
+    @Label("Rows")
+    public int rows;
+}
@@ -0,0 +1,118 @@
+package com.example.accouting.listener;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records chunk latencies so that a run can report p50/p99 chunk times.
+ * Keeps a fixed-size reservoir sample, so memory stays constant however many chunks run.
+ */
+public class ChunkTimingListener implements ChunkListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkTimingListener.class);
+
+    private static final int RESERVOIR_SIZE = 1 << 16;
+
+    // Chunks of a multi-threaded step start and finish on the same worker thread
+    private final ThreadLocal<Long> chunkStart = new ThreadLocal<>();
+
+    private final Timer chunkTimer = Timer.builder("accounting.chunk.duration")
+            .description("Duration of address processing chunks")
+            .publishPercentiles(0.5, 0.99)
+            .register(Metrics.globalRegistry);
+
+    private final long[] reservoir = new long[RESERVOIR_SIZE];
+
+    private long chunkCount;
+
+    // Milliseconds from JVM start until the first chunk committed, -1 until then
+    private volatile long firstChunkMillis = -1;
+
+    @Override
+    public void beforeChunk(ChunkContext context) {
+        chunkStart.set(System.nanoTime());
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        Long start = chunkStart.get();
+        if (start == null) {
+            return;
+        }
+        chunkStart.remove();
+        record(System.nanoTime() - start);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        chunkStart.remove();
+    }
+
+    private void record(long nanos) {
+        chunkTimer.record(nanos, TimeUnit.NANOSECONDS);
+        synchronized (reservoir) {
+            if (firstChunkMillis < 0) {
+                recordFirstChunk();
+            }
+            if (chunkCount < RESERVOIR_SIZE) {
+                reservoir[(int) chunkCount] = nanos;
+            } else {
+                long slot = ThreadLocalRandom.current().nextLong(chunkCount + 1);
+                if (slot < RESERVOIR_SIZE) {
+                    reservoir[(int) slot] = nanos;
+                }
+            }
+            chunkCount++;
+        }
+    }
+
+    private void recordFirstChunk() {
+        firstChunkMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        Gauge.builder("accounting.startup.duration", this, listener -> listener.firstChunkMillis)
+                .description("Startup time in milliseconds by phase")
+                .tag("phase", "jvm.to.first.chunk")
+                .baseUnit("milliseconds")
+                .register(Metrics.globalRegistry);
+        log.info("First chunk completed {} ms after JVM start", firstChunkMillis);
+    }
+
+    /**
+     * @param percentile value between 0 and 100
+     * @return chunk latency in milliseconds at the given percentile, or 0 if no chunk ran
+     */
+    public double percentileMillis(double percentile) {
+        long[] sorted;
+        synchronized (reservoir) {
+            sorted = Arrays.copyOf(reservoir, (int) Math.min(chunkCount, RESERVOIR_SIZE));
+        }
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+
+    public long getChunkCount() {
+        synchronized (reservoir) {
+            return chunkCount;
+        }
+    }
+
+    public void reset() {
+        synchronized (reservoir) {
+            chunkCount = 0;
+            firstChunkMillis = -1;
+        }
+    }
+}
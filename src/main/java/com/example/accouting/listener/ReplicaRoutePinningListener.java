@@ -0,0 +1,53 @@
+package com.example.accouting.listener;
+
+import com.example.accouting.config.ReplicaRoutingDataSource;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pins the read route for the duration of a step, so a paging or chunk reader reads all of
+ * its pages from one side even if the replica lag crosses the limit mid-step. Does nothing
+ * when reads are not routed between a replica and the primary.
+ */
+public class ReplicaRoutePinningListener implements StepExecutionListener {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    // Steps holding a pin; afterStep also runs when an earlier listener failed in beforeStep
+    private final Set<Long> pinnedSteps = ConcurrentHashMap.newKeySet();
+
+    public ReplicaRoutePinningListener(DataSource readDataSource) {
+        this.routingDataSource = routingDataSource(readDataSource);
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        if (routingDataSource != null) {
+            routingDataSource.pin();
+            pinnedSteps.add(stepExecution.getId());
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (routingDataSource != null && pinnedSteps.remove(stepExecution.getId())) {
+            routingDataSource.release();
+        }
+        return stepExecution.getExitStatus();
+    }
+
+    private static ReplicaRoutingDataSource routingDataSource(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ReplicaRoutingDataSource.class)
+                    ? dataSource.unwrap(ReplicaRoutingDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
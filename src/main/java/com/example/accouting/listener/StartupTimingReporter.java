@@ -0,0 +1,82 @@
+package com.example.accouting.listener;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Logs and publishes a breakdown of where startup time went: JVM start to context ready,
+ * the main Spring Boot phases, and the slowest bean instantiations.
+ * Requires the application to be started with a BufferingApplicationStartup.
+ */
+@Component
+public class StartupTimingReporter implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimingReporter.class);
+
+    private static final int SLOWEST_BEANS = 10;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        register("jvm.to.ready", sinceJvmStart);
+        log.info("Application ready {} ms after JVM start (context started in {} ms)",
+                sinceJvmStart, event.getTimeTaken() == null ? -1 : event.getTimeTaken().toMillis());
+
+        ApplicationStartup startup = event.getSpringApplication().getApplicationStartup();
+        if (!(startup instanceof BufferingApplicationStartup)) {
+            return;
+        }
+        List<StartupTimeline.TimelineEvent> events = ((BufferingApplicationStartup) startup).getBufferedTimeline().getEvents();
+
+        events.stream()
+                .filter(timelineEvent -> timelineEvent.getStartupStep().getName().startsWith("spring.boot.application")
+                        || timelineEvent.getStartupStep().getName().equals("spring.context.refresh"))
+                .forEach(timelineEvent -> {
+                    long millis = timelineEvent.getDuration().toMillis();
+                    register(timelineEvent.getStartupStep().getName(), millis);
+                    log.info("Startup phase {}: {} ms", timelineEvent.getStartupStep().getName(), millis);
+                });
+
+        List<StartupTimeline.TimelineEvent> slowestBeans = events.stream()
+                .filter(timelineEvent -> timelineEvent.getStartupStep().getName().equals("spring.beans.instantiate"))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration, Comparator.reverseOrder()))
+                .limit(SLOWEST_BEANS)
+                .collect(Collectors.toList());
+        for (StartupTimeline.TimelineEvent bean : slowestBeans) {
+            String beanName = beanName(bean.getStartupStep());
+            register("bean." + beanName, bean.getDuration().toMillis());
+            log.info("Startup bean {}: {} ms", beanName, bean.getDuration().toMillis());
+        }
+    }
+
+    private String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "unknown";
+    }
+
+    private void register(String phase, long millis) {
+        Gauge.builder("accounting.startup.duration", () -> millis)
+                .description("Startup time in milliseconds by phase")
+                .tag("phase", phase)
+                .baseUnit("milliseconds")
+                .register(Metrics.globalRegistry);
+    }
+}
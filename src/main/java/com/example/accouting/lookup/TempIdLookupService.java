@@ -0,0 +1,120 @@
+package com.example.accouting.lookup;
+
+import com.example.accouting.config.ReplicaLagMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Embedded lookup of which tempID an account or org belongs to.
+ * Lookups are served from an in-memory snapshot and never touch the database; the snapshot
+ * is rebuilt after each successful addressJob run and swapped in atomically, so callers see
+ * either the previous or the new assignment, never a mix.
+ * The snapshot is read from the replica once it has replayed the job's writes, otherwise from
+ * the primary.
+ */
+@Service
+public class TempIdLookupService {
+
+    private static final Logger log = LoggerFactory.getLogger(TempIdLookupService.class);
+
+    private static final String SNAPSHOT_SQL =
+            "SELECT org_id, account_id, temp_id FROM address WHERE temp_id IS NOT NULL";
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("readDataSource")
+    private DataSource readDataSource;
+
+    // Present only when a replica is configured
+    @Autowired(required = false)
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    // How long a reload waits for the replica to catch up before reading from the primary
+    @Value("${batch.replica.catch.up.timeout.ms:10000}")
+    private long replicaCatchUpTimeoutMillis;
+
+    private final AtomicReference<TempIdSnapshot> snapshot = new AtomicReference<>(TempIdSnapshot.empty());
+
+    public String findTempIdByAccountId(String accountID) {
+        return snapshot.get().tempIdForAccount(accountID);
+    }
+
+    /**
+     * @return tempIDs for the given accounts; accounts without an assignment are left out
+     */
+    public Map<String, String> findTempIdsByAccountIds(Collection<String> accountIDs) {
+        return snapshot.get().tempIdsForAccounts(accountIDs);
+    }
+
+    public List<String> findTempIdsByOrgId(String orgID) {
+        return snapshot.get().tempIdsForOrg(orgID);
+    }
+
+    /**
+     * @return tempIDs for the given orgs; orgs without an assignment are left out
+     */
+    public Map<String, List<String>> findTempIdsByOrgIds(Collection<String> orgIDs) {
+        return snapshot.get().tempIdsForOrgs(orgIDs);
+    }
+
+    public TempIdSnapshot currentSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Build a new snapshot from the address table and swap it in
+     */
+    public TempIdSnapshot reload() {
+        long start = System.nanoTime();
+        DataSource source = snapshotSource();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(source);
+        jdbcTemplate.setFetchSize(10000);
+        // Without a transaction the PostgreSQL driver ignores the fetch size and buffers every row
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(source));
+        transactionTemplate.setReadOnly(true);
+
+        TempIdSnapshot.Builder builder = new TempIdSnapshot.Builder(snapshot.get().accountCount());
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(SNAPSHOT_SQL, rs -> {
+            builder.add(rs.getString("org_id"), rs.getString("account_id"), rs.getString("temp_id"));
+        }));
+        return swap(builder.build(), start);
+    }
+
+    /**
+     * Read-your-writes: only use the replica if it has replayed everything committed so far
+     */
+    private DataSource snapshotSource() {
+        if (replicaLagMonitor == null) {
+            return readDataSource;
+        }
+        return replicaLagMonitor.awaitCatchUp(Duration.ofMillis(replicaCatchUpTimeoutMillis))
+                ? readDataSource : primaryDataSource;
+    }
+
+    /**
+     * Publish an already built snapshot
+     */
+    private TempIdSnapshot swap(TempIdSnapshot next, long startNanos) {
+        TempIdSnapshot previous = snapshot.getAndSet(next);
+        log.info("Swapped tempID lookup snapshot in {} ms: {} (previous {})",
+                (System.nanoTime() - startNanos) / 1_000_000, next, previous);
+        return next;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.accouting.lookup;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable in-memory view of the final account -> tempID and org -> tempIDs assignment.
+ * TempID strings are shared between entries, since there are far fewer tempIDs than accounts.
+ */
+public final class TempIdSnapshot {
+
+    private static final String[] NO_TEMP_IDS = new String[0];
+
+    private final Map<String, String> accountTempIds;
+    private final Map<String, String[]> orgTempIds;
+    private final long createdAtMillis;
+
+    private TempIdSnapshot(Map<String, String> accountTempIds, Map<String, String[]> orgTempIds) {
+        this.accountTempIds = accountTempIds;
+        this.orgTempIds = orgTempIds;
+        this.createdAtMillis = System.currentTimeMillis();
+    }
+
+    public static TempIdSnapshot empty() {
+        return new TempIdSnapshot(Collections.emptyMap(), Collections.emptyMap());
+    }
+
+    public String tempIdForAccount(String accountID) {
+        return accountTempIds.get(accountID);
+    }
+
+    public Map<String, String> tempIdsForAccounts(Collection<String> accountIDs) {
+        Map<String, String> result = new HashMap<>(accountIDs.size() * 2);
+        for (String accountID : accountIDs) {
+            String tempID = accountTempIds.get(accountID);
+            if (tempID != null) {
+                result.put(accountID, tempID);
+            }
+        }
+        return result;
+    }
+
+    public List<String> tempIdsForOrg(String orgID) {
+        return Collections.unmodifiableList(Arrays.asList(orgTempIds.getOrDefault(orgID, NO_TEMP_IDS)));
+    }
+
+    public Map<String, List<String>> tempIdsForOrgs(Collection<String> orgIDs) {
+        Map<String, List<String>> result = new HashMap<>(orgIDs.size() * 2);
+        for (String orgID : orgIDs) {
+            String[] tempIDs = orgTempIds.get(orgID);
+            if (tempIDs != null) {
+                result.put(orgID, Collections.unmodifiableList(Arrays.asList(tempIDs)));
+            }
+        }
+        return result;
+    }
+
+    public int accountCount() {
+        return accountTempIds.size();
+    }
+
+    public int orgCount() {
+        return orgTempIds.size();
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    /**
+     * Collects rows into a snapshot. Not thread-safe; build on one thread, then publish.
+     */
+    public static class Builder {
+
+        private final Map<String, String> accountTempIds;
+        private final Map<String, Set<String>> orgTempIds = new HashMap<>();
+        private final Map<String, String> tempIdPool = new HashMap<>();
+
+        public Builder(int expectedAccounts) {
+            this.accountTempIds = new HashMap<>(Math.max(16, (int) (expectedAccounts / 0.75f) + 1));
+        }
+
+        public Builder add(String orgID, String accountID, String tempID) {
+            if (tempID == null) {
+                return this;
+            }
+            String shared = tempIdPool.computeIfAbsent(tempID, id -> id);
+            if (accountID != null) {
+                accountTempIds.put(accountID, shared);
+            }
+            if (orgID != null) {
+                orgTempIds.computeIfAbsent(orgID, id -> new LinkedHashSet<>(2)).add(shared);
+            }
+            return this;
+        }
+
+        public TempIdSnapshot build() {
+            Map<String, String[]> orgs = new HashMap<>(Math.max(16, (int) (orgTempIds.size() / 0.75f) + 1));
+            orgTempIds.forEach((orgID, tempIDs) -> orgs.put(orgID, tempIDs.toArray(NO_TEMP_IDS)));
+            return new TempIdSnapshot(accountTempIds, orgs);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TempIdSnapshot{accounts=" + accountTempIds.size() + ", orgs=" + orgTempIds.size()
+                + ", createdAt=" + createdAtMillis + "}";
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.accouting.lookup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+
+/**
+ * Refreshes the tempID lookup snapshot when addressJob completes successfully
+ */
+public class TempIdSnapshotJobListener implements JobExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(TempIdSnapshotJobListener.class);
+
+    private final TempIdLookupService lookupService;
+
+    public TempIdSnapshotJobListener(TempIdLookupService lookupService) {
+        this.lookupService = lookupService;
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        if (jobExecution.getStatus() != BatchStatus.COMPLETED) {
+            log.info("Job {} ended with {}, keeping the current tempID snapshot",
+                    jobExecution.getId(), jobExecution.getStatus());
+            return;
+        }
+        try {
+            lookupService.reload();
+        } catch (Exception e) {
+            // The previous snapshot stays in place, so lookups keep working
+            log.warn("Could not refresh tempID lookup snapshot", e);
+        }
+    }
+}
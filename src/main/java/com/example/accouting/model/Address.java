@@ -1,16 +1,23 @@
 package com.example.accouting.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "address")
+@Table(name = "address", indexes = {
+        // Serves the grouped reader ordering and per-account lookups
+        @Index(name = "idx_address_group_account", columnList = "aic_group_id, account_id, id"),
+        // Serves existsByAccountID/findByAccountID when the account cache is not preloaded
+        @Index(name = "idx_address_account", columnList = "account_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,9 +27,17 @@ public class Address {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    // Explicit snake_case names shared with the plain JDBC readers and writers
+    @Column(name = "org_id")
     private String orgID;
+
+    @Column(name = "aic_group_id")
     private String aicGroupID;
+
+    @Column(name = "account_id")
     private String accountID;
+
+    @Column(name = "temp_id")
     private String tempID;
     
     // Constructor without id for easier creation
@@ -0,0 +1,88 @@
+package com.example.accouting.partition;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the address table into gridSize contiguous AIC group ranges of about the same row count,
+ * so every worker owns a disjoint set of groups and reads them through the
+ * (aic_group_id, account_id, id) index instead of scanning the whole table. A group never spans
+ * two ranges. Rows with a NULL AIC group or account ID cannot be paged by those sort keys; they get
+ * an extra partition of their own that is read in primary key order.
+ */
+public class AicGroupRangePartitioner implements Partitioner {
+
+    public static final String FROM_GROUP_KEY = "fromGroup";
+    public static final String TO_GROUP_KEY = "toGroup";
+    public static final String NULL_KEYS_KEY = "nullKeys";
+
+    private static final String KEYED_ROWS = "aic_group_id IS NOT NULL AND account_id IS NOT NULL";
+
+    private final DataSource dataSource;
+
+    public AicGroupRangePartitioner(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM address WHERE " + KEYED_ROWS, Long.class);
+        long rows = total == null ? 0 : total;
+
+        // First group of every range after the first one
+        List<String> boundaries = new ArrayList<>();
+        if (rows > 0 && gridSize > 1) {
+            long[] seen = {0};
+            jdbcTemplate.query("SELECT aic_group_id, COUNT(*) AS row_count FROM address WHERE " + KEYED_ROWS
+                    + " GROUP BY aic_group_id ORDER BY aic_group_id", rs -> {
+                if (seen[0] > 0 && boundaries.size() < gridSize - 1
+                        && seen[0] >= rows * (boundaries.size() + 1) / gridSize) {
+                    boundaries.add(rs.getString("aic_group_id"));
+                }
+                seen[0] += rs.getLong("row_count");
+            });
+        }
+
+        Map<String, ExecutionContext> partitions = new HashMap<>(boundaries.size() + 2);
+        for (int range = 0; range <= boundaries.size(); range++) {
+            ExecutionContext context = new ExecutionContext();
+            if (range > 0) {
+                context.putString(FROM_GROUP_KEY, boundaries.get(range - 1));
+            }
+            if (range < boundaries.size()) {
+                context.putString(TO_GROUP_KEY, boundaries.get(range));
+            }
+            partitions.put("range" + range, context);
+        }
+        ExecutionContext nullKeys = new ExecutionContext();
+        nullKeys.put(NULL_KEYS_KEY, Boolean.TRUE);
+        partitions.put("nullKeys", nullKeys);
+        return partitions;
+    }
+
+    /**
+     * @return WHERE clause selecting the rows of one partition; binds :fromGroup and :toGroup
+     * when those bounds are set
+     */
+    public static String whereClause(String fromGroup, String toGroup, Boolean nullKeys) {
+        if (Boolean.TRUE.equals(nullKeys)) {
+            return "aic_group_id IS NULL OR account_id IS NULL";
+        }
+        StringBuilder where = new StringBuilder(KEYED_ROWS);
+        if (fromGroup != null) {
+            where.append(" AND aic_group_id >= :" + FROM_GROUP_KEY);
+        }
+        if (toGroup != null) {
+            where.append(" AND aic_group_id < :" + TO_GROUP_KEY);
+        }
+        return where.toString();
+    }
+}
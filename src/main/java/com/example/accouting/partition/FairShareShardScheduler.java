@@ -0,0 +1,185 @@
+package com.example.accouting.partition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs one orgShardJob instance per org shard concurrently, then the merge job.
+ *
+ * The number of concurrent shards is capped by both the thread limit and the connection budget
+ * (each single-threaded shard holds about connectionsPerShard connections). Large shards start
+ * first, largest first, but may occupy at most all slots but one; the reserved slot works
+ * through the small shards smallest first, so small tenants finish while the big ones are still
+ * running. Once no small shards are left, large shards may use every slot.
+ */
+public class FairShareShardScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(FairShareShardScheduler.class);
+
+    private final JobLauncher jobLauncher;
+    private final Job shardJob;
+    private final Job mergeJob;
+    private final OrgShardPlanner planner;
+    private final int maxThreads;
+    private final int maxConnections;
+    private final int connectionsPerShard;
+    private final long smallShardRows;
+
+    private final Deque<OrgShard> smallShards = new ArrayDeque<>();
+    private final Deque<OrgShard> largeShards = new ArrayDeque<>();
+    private int largeRunning;
+    private int largeLimit;
+
+    public FairShareShardScheduler(JobLauncher jobLauncher, Job shardJob, Job mergeJob, OrgShardPlanner planner,
+                                   int maxThreads, int maxConnections, int connectionsPerShard, long smallShardRows) {
+        this.jobLauncher = jobLauncher;
+        this.shardJob = shardJob;
+        this.mergeJob = mergeJob;
+        this.planner = planner;
+        this.maxThreads = maxThreads;
+        this.maxConnections = maxConnections;
+        this.connectionsPerShard = connectionsPerShard;
+        this.smallShardRows = smallShardRows;
+    }
+
+    /**
+     * Run all shards and, if they all complete, the merge job. Blocks until done.
+     *
+     * @return the shard job executions followed by the merge job execution, if it ran
+     */
+    public List<JobExecution> run() throws Exception {
+        List<OrgShard> shards = planner.plan();
+        int slots = Math.max(1, Math.min(maxThreads, maxConnections / Math.max(1, connectionsPerShard)));
+        enqueue(shards, slots);
+        log.info("Running {} org shards ({} small, {} large) on {} slots",
+                shards.size(), smallShards.size(), largeShards.size(), slots);
+
+        long runId = System.currentTimeMillis();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(slots,
+                runnable -> new Thread(runnable, "shard-" + threadNumber.incrementAndGet()));
+        // Shared by the workers, so executions survive when another worker fails
+        List<JobExecution> executions = Collections.synchronizedList(new ArrayList<>());
+        try {
+            List<Future<Void>> workers = new ArrayList<>();
+            for (int slot = 0; slot < slots; slot++) {
+                workers.add(executor.submit(() -> {
+                    runShards(runId, executions);
+                    return null;
+                }));
+            }
+            // Wait for every worker before failing, so the other shards finish and are reported
+            Exception failure = null;
+            for (Future<Void> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            if (failure != null) {
+                List<String> finished = new ArrayList<>();
+                executions.forEach(execution -> finished.add(execution.getJobParameters() + " " + execution.getStatus()));
+                throw new IllegalStateException(String.format("Org shard launch failed, %d of %d shards ran: %s",
+                        finished.size(), shards.size(), finished), failure);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        boolean allCompleted = executions.stream().allMatch(execution -> execution.getStatus() == BatchStatus.COMPLETED);
+        if (!allCompleted) {
+            log.warn("Not all org shards completed, skipping the merge job");
+            return executions;
+        }
+        JobParameters mergeParameters = new JobParametersBuilder()
+                .addLong("run.id", runId)
+                .toJobParameters();
+        executions.add(jobLauncher.run(mergeJob, mergeParameters));
+        return executions;
+    }
+
+    private synchronized void enqueue(List<OrgShard> shards, int slots) {
+        smallShards.clear();
+        largeShards.clear();
+        largeRunning = 0;
+        // With a single slot nothing is reserved: small shards simply go first
+        largeLimit = slots - 1;
+        shards.stream()
+                .sorted(Comparator.comparingLong(OrgShard::getEstimatedRows))
+                .forEach(shard -> {
+                    if (shard.getEstimatedRows() <= smallShardRows) {
+                        smallShards.addLast(shard);
+                    } else {
+                        // Largest first, so the longest shards start as early as possible
+                        largeShards.addFirst(shard);
+                    }
+                });
+    }
+
+    private void runShards(long runId, List<JobExecution> executions) throws Exception {
+        OrgShard shard;
+        while ((shard = takeNext()) != null) {
+            boolean large = shard.getEstimatedRows() > smallShardRows;
+            long start = System.nanoTime();
+            try {
+                JobParameters parameters = new JobParametersBuilder()
+                        .addLong("run.id", runId)
+                        .addLong("bucket", (long) shard.getBucket())
+                        .addLong("buckets", (long) shard.getBuckets())
+                        .toJobParameters();
+                JobExecution execution = jobLauncher.run(shardJob, parameters);
+                executions.add(execution);
+                log.info("Org {} finished with {} in {} ms",
+                        shard, execution.getStatus(), (System.nanoTime() - start) / 1_000_000);
+            } finally {
+                if (large) {
+                    releaseLarge();
+                }
+            }
+        }
+    }
+
+    private synchronized OrgShard takeNext() {
+        if (!largeShards.isEmpty() && largeRunning < largeLimit) {
+            largeRunning++;
+            return largeShards.pollFirst();
+        }
+        if (!smallShards.isEmpty()) {
+            return smallShards.pollFirst();
+        }
+        if (!largeShards.isEmpty()) {
+            // Nothing small left to protect, so the reserved slot can take a large shard too
+            largeRunning++;
+            return largeShards.pollFirst();
+        }
+        return null;
+    }
+
+    private synchronized void releaseLarge() {
+        largeRunning--;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.accouting.partition;
+
+/**
+ * One hash bucket of org IDs, processed by its own orgShardJob instance
+ */
+public final class OrgShard {
+
+    private final int bucket;
+    private final int buckets;
+    private final long estimatedRows;
+
+    public OrgShard(int bucket, int buckets, long estimatedRows) {
+        this.bucket = bucket;
+        this.buckets = buckets;
+        this.estimatedRows = estimatedRows;
+    }
+
+    public int getBucket() {
+        return bucket;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public long getEstimatedRows() {
+        return estimatedRows;
+    }
+
+    @Override
+    public String toString() {
+        return "shard " + bucket + "/" + buckets + " (" + estimatedRows + " rows)";
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.accouting.partition;
+
+import com.example.accouting.repository.HashBucketSql;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits the address table into hash buckets of org IDs and sizes each one, so the scheduler
+ * can tell small tenants from large ones. Empty buckets are left out.
+ */
+public class OrgShardPlanner {
+
+    private final DataSource dataSource;
+    private final int buckets;
+
+    public OrgShardPlanner(DataSource dataSource, int buckets) {
+        this.dataSource = dataSource;
+        this.buckets = buckets;
+    }
+
+    public List<OrgShard> plan() {
+        String bucketExpression = HashBucketSql.bucketExpression(dataSource, "org_id", buckets);
+        List<OrgShard> shards = new ArrayList<>();
+        new JdbcTemplate(dataSource).query(
+                "SELECT " + bucketExpression + " AS bucket, COUNT(*) AS row_count FROM address GROUP BY " + bucketExpression,
+                rs -> {
+                    shards.add(new OrgShard(rs.getInt("bucket"), buckets, rs.getLong("row_count")));
+                });
+        return shards;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.accouting.planner;
+
+import com.example.accouting.support.HyperLogLog;
+import lombok.Data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statistics gathered from a sample of the address table. Distinct values within the sample are
+ * counted with HyperLogLog sketches; singleton counts for scaling them to the whole table and the
+ * AIC group (cluster) sizes come from frequency maps, which the sample size bounds.
+ */
+@Data
+public class AddressSample {
+
+    private String method;
+
+    private long estimatedTotalRows;
+
+    private long sampledRows;
+
+    private long sampledBytes;
+
+    private final HyperLogLog accountSketch = new HyperLogLog();
+    private final HyperLogLog orgSketch = new HyperLogLog();
+    private final HyperLogLog aicGroupSketch = new HyperLogLog();
+
+    private final Map<String, Integer> accountFrequencies = new HashMap<>();
+    private final Map<String, Integer> orgFrequencies = new HashMap<>();
+    private final Map<String, Integer> aicGroupFrequencies = new HashMap<>();
+
+    public void add(String orgID, String aicGroupID, String accountID, long rowBytes) {
+        sampledRows++;
+        sampledBytes += rowBytes;
+        accountSketch.add(accountID);
+        orgSketch.add(orgID);
+        aicGroupSketch.add(aicGroupID);
+        count(accountFrequencies, accountID);
+        count(orgFrequencies, orgID);
+        count(aicGroupFrequencies, aicGroupID);
+    }
+
+    public double averageRowBytes() {
+        return sampledRows == 0 ? 0 : (double) sampledBytes / sampledRows;
+    }
+
+    public long estimatedDistinctAccounts() {
+        return scaleDistinct(accountSketch, accountFrequencies);
+    }
+
+    public long estimatedDistinctOrgs() {
+        return scaleDistinct(orgSketch, orgFrequencies);
+    }
+
+    public long estimatedDistinctAicGroups() {
+        return scaleDistinct(aicGroupSketch, aicGroupFrequencies);
+    }
+
+    /**
+     * Share of the sample in the largest AIC group; a group is never split across threads
+     */
+    public double topAicGroupShare() {
+        return sampledRows == 0 ? 0 : (double) largestAicGroup() / sampledRows;
+    }
+
+    /**
+     * Largest over mean AIC group size in the sample; 1 means evenly sized clusters
+     */
+    public double aicGroupSkew() {
+        if (aicGroupFrequencies.isEmpty()) {
+            return 1.0;
+        }
+        double mean = (double) sampledRows / aicGroupFrequencies.size();
+        return largestAicGroup() / mean;
+    }
+
+    private int largestAicGroup() {
+        int largest = 0;
+        for (int size : aicGroupFrequencies.values()) {
+            largest = Math.max(largest, size);
+        }
+        return largest;
+    }
+
+    /**
+     * Guaranteed-error estimator (Charikar et al.): values seen more than once in the sample are
+     * probably common and counted once, values seen once stand for sqrt(N / n) values each
+     */
+    private long scaleDistinct(HyperLogLog sketch, Map<String, Integer> frequencies) {
+        long inSample = sketch.estimate();
+        if (sampledRows == 0 || estimatedTotalRows <= sampledRows) {
+            return inSample;
+        }
+        long singletons = 0;
+        for (int frequency : frequencies.values()) {
+            if (frequency == 1) {
+                singletons++;
+            }
+        }
+        double scale = Math.sqrt((double) estimatedTotalRows / sampledRows);
+        long estimate = Math.round(scale * singletons + Math.max(0, inSample - singletons));
+        return Math.min(estimate, estimatedTotalRows);
+    }
+
+    private static void count(Map<String, Integer> frequencies, String value) {
+        if (value != null) {
+            frequencies.merge(value, 1, Integer::sum);
+        }
+    }
+}
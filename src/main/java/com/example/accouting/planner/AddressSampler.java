@@ -0,0 +1,120 @@
+package com.example.accouting.planner;
+
+import com.example.accouting.model.Address;
+import com.example.accouting.repository.AddressRowMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import javax.sql.DataSource;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Draws a sample of roughly the requested number of address rows.
+ *
+ * PostgreSQL uses TABLESAMPLE SYSTEM, which reads whole random pages, with the row count taken
+ * from the planner statistics. Other databases sample id ranges instead: the id span is split
+ * into strata and one window is read from each, and the row count is extrapolated from the rows
+ * found in the windows. Rows inserted together share a page or id range, so both methods
+ * overstate how often values repeat when related rows are loaded in bulk.
+ */
+public class AddressSampler {
+
+    private static final Logger log = LoggerFactory.getLogger(AddressSampler.class);
+
+    private static final String COLUMNS = "SELECT id, org_id, aic_group_id, account_id, temp_id FROM address";
+
+    private final DataSource dataSource;
+    private final int sampleRows;
+    private final int idRanges;
+    private final long seed;
+
+    public AddressSampler(DataSource dataSource, int sampleRows, int idRanges, long seed) {
+        if (sampleRows <= 0) {
+            throw new IllegalArgumentException("sampleRows must be positive: " + sampleRows);
+        }
+        if (idRanges <= 0) {
+            throw new IllegalArgumentException("idRanges must be positive: " + idRanges);
+        }
+        this.dataSource = dataSource;
+        this.sampleRows = sampleRows;
+        this.idRanges = idRanges;
+        this.seed = seed;
+    }
+
+    public AddressSample sample() throws Exception {
+        long start = System.nanoTime();
+        AddressSample sample = DatabaseType.fromMetaData(dataSource) == DatabaseType.POSTGRES
+                ? tableSample()
+                : idRangeSample();
+        log.info("Sampled {} of ~{} address rows using {} in {} ms", sample.getSampledRows(),
+                sample.getEstimatedTotalRows(), sample.getMethod(), (System.nanoTime() - start) / 1_000_000);
+        return sample;
+    }
+
+    private AddressSample tableSample() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        AddressSample sample = new AddressSample();
+        Long reltuples = jdbcTemplate.queryForObject(
+                "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass('address')", Long.class);
+        long totalRows = reltuples != null && reltuples > 0
+                ? reltuples
+                // Never analyzed; count once
+                : jdbcTemplate.queryForObject("SELECT COUNT(*) FROM address", Long.class);
+        sample.setEstimatedTotalRows(totalRows);
+        if (totalRows == 0) {
+            sample.setMethod("empty table");
+            return sample;
+        }
+
+        double percent = Math.min(100.0, 100.0 * sampleRows / totalRows);
+        sample.setMethod(String.format(Locale.ROOT, "TABLESAMPLE SYSTEM (%.4f%%)", percent));
+        jdbcTemplate.query(String.format(Locale.ROOT, "%s TABLESAMPLE SYSTEM (%.6f) REPEATABLE (%d)",
+                COLUMNS, percent, seed), collector(sample));
+        return sample;
+    }
+
+    private AddressSample idRangeSample() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        AddressSample sample = new AddressSample();
+        long[] bounds = jdbcTemplate.query("SELECT MIN(id), MAX(id) FROM address",
+                (ResultSetExtractor<long[]>) rs -> {
+                    rs.next();
+                    return rs.getObject(1) == null ? null : new long[]{rs.getLong(1), rs.getLong(2)};
+                });
+        if (bounds == null) {
+            sample.setMethod("empty table");
+            return sample;
+        }
+
+        long span = bounds[1] - bounds[0] + 1;
+        long stratum = Math.max(1, span / idRanges);
+        // Assume dense ids to size the windows; the row count below corrects for gaps
+        long window = Math.max(1, Math.min(stratum, (long) Math.ceil((double) sampleRows / idRanges)));
+        SplittableRandom random = new SplittableRandom(seed);
+        long sampledSpan = 0;
+        for (long from = bounds[0]; from <= bounds[1]; from += stratum) {
+            long stratumEnd = Math.min(bounds[1] + 1, from + stratum);
+            long windowStart = from + random.nextLong(Math.max(1, stratumEnd - from - window + 1));
+            long windowEnd = Math.min(stratumEnd, windowStart + window);
+            jdbcTemplate.query(COLUMNS + " WHERE id >= ? AND id < ?", collector(sample), windowStart, windowEnd);
+            sampledSpan += windowEnd - windowStart;
+        }
+        sample.setMethod(String.format(Locale.ROOT, "%d id ranges of %d ids", (span + stratum - 1) / stratum, window));
+        sample.setEstimatedTotalRows(Math.round((double) sample.getSampledRows() * span / sampledSpan));
+        return sample;
+    }
+
+    private static RowCallbackHandler collector(AddressSample sample) {
+        AddressRowMapper rowMapper = new AddressRowMapper();
+        return rs -> {
+            Address address = rowMapper.mapRow(rs, 0);
+            sample.add(address.getOrgID(), address.getAicGroupID(), address.getAccountID(),
+                    AddressRowMapper.estimatedSize(address));
+        };
+    }
+}
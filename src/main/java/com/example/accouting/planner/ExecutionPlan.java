@@ -0,0 +1,114 @@
+package com.example.accouting.planner;
+
+import lombok.Data;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.Locale;
+
+/**
+ * Execution strategy chosen by the planning step, together with the estimates it was based on.
+ * Stored in the job ExecutionContext under "plan.*" keys so runs can be compared later.
+ */
+@Data
+public class ExecutionPlan {
+
+    private static final String PREFIX = "plan.";
+
+    /**
+     * How the processor recognizes accounts it has not seen in this run
+     */
+    public enum CacheMode {
+        // Every account ID preloaded into the in-heap exact set
+        EXACT,
+        // Bounded exact set plus a Bloom filter over all account IDs
+        BLOOM,
+        // No preload, each new account is checked in the database once
+        ON_DEMAND
+    }
+
+    private String samplingMethod;
+    private long sampledRows;
+    private long estimatedRows;
+    private long estimatedDistinctAccounts;
+    private long estimatedDistinctOrgs;
+    private long estimatedDistinctAicGroups;
+    private double averageRowBytes;
+    private double topAicGroupShare;
+    private double aicGroupSkew;
+
+    private int chunkSize;
+    private int pageSize;
+    private int threads;
+    private CacheMode cacheMode;
+    private boolean preload;
+    private long expectedRuntimeSeconds;
+
+    public void writeTo(ExecutionContext context) {
+        context.putString(PREFIX + "sampling.method", samplingMethod);
+        context.putLong(PREFIX + "sampled.rows", sampledRows);
+        context.putLong(PREFIX + "estimated.rows", estimatedRows);
+        context.putLong(PREFIX + "estimated.distinct.accounts", estimatedDistinctAccounts);
+        context.putLong(PREFIX + "estimated.distinct.orgs", estimatedDistinctOrgs);
+        context.putLong(PREFIX + "estimated.distinct.aic.groups", estimatedDistinctAicGroups);
+        context.putDouble(PREFIX + "average.row.bytes", averageRowBytes);
+        context.putDouble(PREFIX + "top.aic.group.share", topAicGroupShare);
+        context.putDouble(PREFIX + "aic.group.skew", aicGroupSkew);
+        context.putInt(PREFIX + "chunk.size", chunkSize);
+        context.putInt(PREFIX + "page.size", pageSize);
+        context.putInt(PREFIX + "threads", threads);
+        context.putString(PREFIX + "cache.mode", cacheMode.name());
+        context.put(PREFIX + "preload", preload);
+        context.putLong(PREFIX + "expected.runtime.seconds", expectedRuntimeSeconds);
+    }
+
+    /**
+     * @return the plan stored in the context, or null if the job ran without the planning step
+     */
+    public static ExecutionPlan readFrom(ExecutionContext context) {
+        if (!context.containsKey(PREFIX + "chunk.size")) {
+            return null;
+        }
+        ExecutionPlan plan = new ExecutionPlan();
+        plan.setSamplingMethod(context.getString(PREFIX + "sampling.method"));
+        plan.setSampledRows(context.getLong(PREFIX + "sampled.rows"));
+        plan.setEstimatedRows(context.getLong(PREFIX + "estimated.rows"));
+        plan.setEstimatedDistinctAccounts(context.getLong(PREFIX + "estimated.distinct.accounts"));
+        plan.setEstimatedDistinctOrgs(context.getLong(PREFIX + "estimated.distinct.orgs"));
+        plan.setEstimatedDistinctAicGroups(context.getLong(PREFIX + "estimated.distinct.aic.groups"));
+        plan.setAverageRowBytes(context.getDouble(PREFIX + "average.row.bytes"));
+        plan.setTopAicGroupShare(context.getDouble(PREFIX + "top.aic.group.share"));
+        plan.setAicGroupSkew(context.getDouble(PREFIX + "aic.group.skew"));
+        plan.setChunkSize(context.getInt(PREFIX + "chunk.size"));
+        plan.setPageSize(context.getInt(PREFIX + "page.size"));
+        plan.setThreads(context.getInt(PREFIX + "threads"));
+        plan.setCacheMode(CacheMode.valueOf(context.getString(PREFIX + "cache.mode")));
+        plan.setPreload(Boolean.TRUE.equals(context.get(PREFIX + "preload")));
+        plan.setExpectedRuntimeSeconds(context.getLong(PREFIX + "expected.runtime.seconds"));
+        return plan;
+    }
+
+    /**
+     * @return the planned chunk size, or null if the job ran without the planning step
+     */
+    public static Integer plannedChunkSize(ExecutionContext context) {
+        return context.containsKey(PREFIX + "chunk.size") ? context.getInt(PREFIX + "chunk.size") : null;
+    }
+
+    public String format() {
+        return String.format(Locale.ROOT,
+                "%n  sample: %,d rows (%s)"
+                        + "%n  estimated rows: %,d, distinct accounts: %,d, orgs: %,d, AIC groups: %,d"
+                        + "%n  average row: %.0f bytes, largest AIC group: %.2f%% of rows (%.1fx the mean)"
+                        + "%n  chunk size: %,d, page size: %,d, threads: %d, cache: %s, preload: %s"
+                        + "%n  expected runtime: %s",
+                sampledRows, samplingMethod,
+                estimatedRows, estimatedDistinctAccounts, estimatedDistinctOrgs, estimatedDistinctAicGroups,
+                averageRowBytes, topAicGroupShare * 100, aicGroupSkew,
+                chunkSize, pageSize, threads, cacheMode, preload,
+                formatDuration(expectedRuntimeSeconds));
+    }
+
+    private static String formatDuration(long seconds) {
+        return String.format(Locale.ROOT, "%d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+    }
+}
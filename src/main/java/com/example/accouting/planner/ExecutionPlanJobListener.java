@@ -0,0 +1,25 @@
+package com.example.accouting.planner;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Restores the configured thread limit of the shared task executor after a job whose planning
+ * step changed it, so later jobs in the same JVM start from the configured limit again
+ */
+public class ExecutionPlanJobListener implements JobExecutionListener {
+
+    private final SimpleAsyncTaskExecutor taskExecutor;
+    private final int configuredThreads;
+
+    public ExecutionPlanJobListener(SimpleAsyncTaskExecutor taskExecutor, int configuredThreads) {
+        this.taskExecutor = taskExecutor;
+        this.configuredThreads = configuredThreads;
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        taskExecutor.setConcurrencyLimit(configuredThreads);
+    }
+}
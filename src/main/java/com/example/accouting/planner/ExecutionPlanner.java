@@ -0,0 +1,90 @@
+package com.example.accouting.planner;
+
+/**
+ * Turns sample statistics into an execution plan.
+ *
+ * Threads grow with the row count up to the configured maximum; in grouped mode a group is
+ * never split, so the largest AIC group bounds how many threads can be kept busy. Chunks are
+ * sized to a target number of bytes and pages to one chunk per thread. The expected runtime
+ * is a linear estimate from the calibrated per-thread throughput.
+ */
+public class ExecutionPlanner {
+
+    static final int MIN_CHUNK_SIZE = 100;
+    static final int MAX_CHUNK_SIZE = 10_000;
+    static final int MAX_PAGE_SIZE = 50_000;
+
+    private final int maxThreads;
+    private final boolean groupedMode;
+    private final long rowsPerThread;
+    private final long targetChunkBytes;
+    private final double rowsPerSecondPerThread;
+    private final long preloadMaxAccounts;
+    private final boolean bloomEnabled;
+
+    public ExecutionPlanner(int maxThreads, boolean groupedMode, long rowsPerThread, long targetChunkBytes,
+                            double rowsPerSecondPerThread, long preloadMaxAccounts, boolean bloomEnabled) {
+        this.maxThreads = maxThreads;
+        this.groupedMode = groupedMode;
+        this.rowsPerThread = rowsPerThread;
+        this.targetChunkBytes = targetChunkBytes;
+        this.rowsPerSecondPerThread = rowsPerSecondPerThread;
+        this.preloadMaxAccounts = preloadMaxAccounts;
+        this.bloomEnabled = bloomEnabled;
+    }
+
+    public ExecutionPlan plan(AddressSample sample) {
+        ExecutionPlan plan = new ExecutionPlan();
+        plan.setSamplingMethod(sample.getMethod());
+        plan.setSampledRows(sample.getSampledRows());
+        plan.setEstimatedRows(sample.getEstimatedTotalRows());
+        plan.setEstimatedDistinctAccounts(sample.estimatedDistinctAccounts());
+        plan.setEstimatedDistinctOrgs(sample.estimatedDistinctOrgs());
+        plan.setEstimatedDistinctAicGroups(sample.estimatedDistinctAicGroups());
+        plan.setAverageRowBytes(sample.averageRowBytes());
+        plan.setTopAicGroupShare(sample.topAicGroupShare());
+        plan.setAicGroupSkew(sample.aicGroupSkew());
+
+        long rows = sample.getEstimatedTotalRows();
+        int threads = (int) Math.max(1, Math.min(maxThreads, ceilDiv(rows, rowsPerThread)));
+        if (groupedMode && sample.topAicGroupShare() > 0) {
+            // More threads than this would wait for the worker holding the largest group
+            threads = Math.min(threads, (int) Math.max(1, Math.ceil(1 / sample.topAicGroupShare())));
+        }
+        plan.setThreads(threads);
+
+        double rowBytes = Math.max(1, sample.averageRowBytes());
+        int chunkSize = clamp(Math.round(targetChunkBytes / rowBytes), MIN_CHUNK_SIZE, MAX_CHUNK_SIZE);
+        // Keep several chunks per thread so the work stays balanced to the end
+        chunkSize = clamp(Math.min(chunkSize, rows / (threads * 4L)), MIN_CHUNK_SIZE, chunkSize);
+        plan.setChunkSize(chunkSize);
+        plan.setPageSize(clamp((long) chunkSize * threads, chunkSize, Math.max(chunkSize, MAX_PAGE_SIZE)));
+
+        // A small table has few accounts, so it lands in EXACT: one streamed query answers every
+        // lookup, which beats a round trip per unseen account however few rows there are
+        long accounts = plan.getEstimatedDistinctAccounts();
+        ExecutionPlan.CacheMode cacheMode;
+        if (accounts <= preloadMaxAccounts) {
+            cacheMode = ExecutionPlan.CacheMode.EXACT;
+        } else if (bloomEnabled) {
+            cacheMode = ExecutionPlan.CacheMode.BLOOM;
+        } else {
+            cacheMode = ExecutionPlan.CacheMode.ON_DEMAND;
+        }
+        plan.setCacheMode(cacheMode);
+        plan.setPreload(cacheMode != ExecutionPlan.CacheMode.ON_DEMAND);
+
+        // Streaming one distinct account ID at preload costs about as much as processing one row
+        double work = (double) rows / threads + (plan.isPreload() ? accounts : 0);
+        plan.setExpectedRuntimeSeconds(Math.round(work / rowsPerSecondPerThread));
+        return plan;
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    private static int clamp(long value, int min, int max) {
+        return (int) Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.accouting.planner;
+
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.policy.CompletionPolicySupport;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+
+/**
+ * Completes a chunk after the chunk size of the running job's execution plan, or after the
+ * configured chunk size when the job has no plan. The size is looked up per chunk, so a step
+ * bean shared by several jobs is never changed.
+ */
+public class PlannedCompletionPolicy extends CompletionPolicySupport {
+
+    private final int configuredChunkSize;
+
+    public PlannedCompletionPolicy(int configuredChunkSize) {
+        this.configuredChunkSize = configuredChunkSize;
+    }
+
+    @Override
+    public RepeatContext start(RepeatContext parent) {
+        return new PlannedChunkContext(parent, chunkSize());
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context) {
+        return ((PlannedChunkContext) context).isFull();
+    }
+
+    @Override
+    public void update(RepeatContext context) {
+        ((PlannedChunkContext) context).increment();
+    }
+
+    private int chunkSize() {
+        StepContext stepContext = StepSynchronizationManager.getContext();
+        if (stepContext == null) {
+            return configuredChunkSize;
+        }
+        Integer planned = ExecutionPlan.plannedChunkSize(
+                stepContext.getStepExecution().getJobExecution().getExecutionContext());
+        return planned != null ? planned : configuredChunkSize;
+    }
+
+    private static class PlannedChunkContext extends RepeatContextSupport {
+
+        private final int chunkSize;
+
+        PlannedChunkContext(RepeatContext parent, int chunkSize) {
+            super(parent);
+            this.chunkSize = chunkSize;
+        }
+
+        boolean isFull() {
+            return getStartedCount() >= chunkSize;
+        }
+    }
+}
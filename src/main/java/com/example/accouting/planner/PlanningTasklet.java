@@ -0,0 +1,47 @@
+package com.example.accouting.planner;
+
+import com.example.accouting.processor.AddressItemProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Samples the address table ahead of processing, chooses an execution plan and applies the
+ * parts that can change at runtime: the thread limit of the shared task executor (restored by
+ * {@link ExecutionPlanJobListener} after the job) and the processor's account ID preload.
+ * The processing steps read chunk and page sizes from the plan in the job context through
+ * {@link PlannedCompletionPolicy} and their step-scoped readers.
+ */
+public class PlanningTasklet implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(PlanningTasklet.class);
+
+    private final AddressSampler sampler;
+    private final ExecutionPlanner planner;
+    private final AddressItemProcessor processor;
+    private final SimpleAsyncTaskExecutor taskExecutor;
+
+    public PlanningTasklet(AddressSampler sampler, ExecutionPlanner planner, AddressItemProcessor processor,
+                           SimpleAsyncTaskExecutor taskExecutor) {
+        this.sampler = sampler;
+        this.planner = planner;
+        this.processor = processor;
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        ExecutionPlan plan = planner.plan(sampler.sample());
+        plan.writeTo(chunkContext.getStepContext().getStepExecution().getJobExecution().getExecutionContext());
+        contribution.incrementReadCount(plan.getSampledRows());
+        log.info("Execution plan:{}", plan.format());
+
+        taskExecutor.setConcurrencyLimit(plan.getThreads());
+        processor.preload(plan.isPreload());
+        return RepeatStatus.FINISHED;
+    }
+}
@@ -1,17 +1,30 @@
 package com.example.accouting.processor;
 
+import com.example.accouting.cache.ScalableBloomFilter;
+import com.example.accouting.jfr.AccountingEvents;
+import com.example.accouting.jfr.CacheLookupEvent;
+import com.example.accouting.jfr.ClusterMergeEvent;
 import com.example.accouting.model.Address;
+import com.example.accouting.repository.AddressReadQueries;
 import com.example.accouting.repository.AddressRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 import jakarta.annotation.PostConstruct;
 
 /**
@@ -24,14 +37,36 @@ public class AddressItemProcessor implements ItemProcessor<Address, Address> {
     @Autowired
     private AddressRepository addressRepository;
 
+    // Needed to hold the cursor open while streaming distinct IDs; absent in plain unit tests
+    @Autowired(required = false)
+    private PlatformTransactionManager transactionManager;
+
+    // Read-only queries against the replica when one is configured; absent in plain unit tests
+    @Autowired(required = false)
+    private AddressReadQueries addressReadQueries;
+
     private final AtomicLong tempIdCounter = new AtomicLong(0);
 
-    // Cache to store known account IDs to avoid repeated database lookups
+    // Cache to store known account IDs to avoid repeated database lookups; only bounded when the
+    // prefilter has taken over and batch.bloom.update.all.accounts is on
     private final Set<String> knownAccountIds = ConcurrentHashMap.newKeySet();
 
     // Cache to store the current tempID for each account ID
     private final Map<String, String> accountTempIdMap = new ConcurrentHashMap<>();
 
+    // True when knownAccountIds holds every account ID in the table, so a miss is a definite negative
+    private volatile boolean knownAccountsPreloaded = false;
+
+    // True when the preload failed, so the cache is built from the processed rows alone
+    private volatile boolean preloadFailed = false;
+
+    // Prefilter for account IDs in the table when there are too many to preload
+    private ScalableBloomFilter accountFilter;
+
+    // Counters for the observed false positive rate of the prefilter
+    private final LongAdder filterNegatives = new LongAdder();
+    private final LongAdder filterFalsePositives = new LongAdder();
+
     // Current global tempID that all accounts will eventually share
     private String currentGlobalTempId;
 
@@ -42,26 +77,169 @@ public class AddressItemProcessor implements ItemProcessor<Address, Address> {
     @Value("${batch.log.frequency:10000}")
     private int logFrequency;
 
+    // Whether to preload existing account IDs at startup; when off, unseen accounts are checked in the database
+    @Value("${batch.preload.enabled:true}")
+    private boolean preloadEnabled = true;
+
+    // Maximum number of account IDs to hold exactly in memory at startup
+    @Value("${batch.preload.max.accounts:100000}")
+    private int preloadMaxAccounts = 100000;
+
+    // Expected number of distinct account IDs, used to size the prefilter
+    @Value("${batch.bloom.expected.accounts:5000000}")
+    private long bloomExpectedAccounts = 5000000;
+
+    // Target false positive rate of the prefilter
+    @Value("${batch.bloom.fpp:0.01}")
+    private double bloomFalsePositiveRate = 0.01;
+
+    // Whether to fall back to the prefilter when there are too many account IDs to preload
+    @Value("${batch.bloom.enabled:true}")
+    private boolean bloomEnabled = true;
+
+    // With the prefilter, keep memory bounded by not tracking every account exactly; the final
+    // update then sets the tempID on every row that has an account ID
+    @Value("${batch.bloom.update.all.accounts:false}")
+    private boolean bloomUpdateAllAccounts = false;
+
+    // In that mode, maximum number of confirmed account IDs cached to avoid repeated lookups
+    @Value("${batch.bloom.confirmed.cache.max.accounts:1000000}")
+    private int bloomConfirmedCacheMaxAccounts = 1000000;
+
+    // When the planning step runs, it decides about the preload instead of init()
+    @Value("${batch.planner.enabled:false}")
+    private boolean plannerEnabled = false;
+
+    // Set while init() leaves the preload to the planning step; runs without one preload on the first row
+    private volatile boolean preloadPending = false;
+
     @PostConstruct
     public void init() {
         // Initialize with a tempID
         currentGlobalTempId = generateTempId();
 
-        // Pre-load existing account IDs if the dataset is not too large
-        // For very large datasets, this would be skipped and the cache would be built incrementally
+        if (plannerEnabled) {
+            // Only addressJob has a planning step; sharded, reactive and streaming runs preload on first use
+            preloadPending = true;
+            log.info("Account ID preload deferred to the planning step");
+            return;
+        }
+        preload();
+    }
+
+    /**
+     * Preload existing account IDs as decided by the execution plan
+     */
+    public synchronized void preload(boolean enabled) {
+        preloadPending = false;
+        this.preloadEnabled = enabled;
+        preload();
+    }
+
+    private synchronized void preloadIfPending() {
+        if (preloadPending) {
+            preloadPending = false;
+            log.info("No planning step ran before processing, preloading account IDs now");
+            preload();
+        }
+    }
+
+    private void preload() {
+        if (!preloadEnabled) {
+            log.info("Account ID preload disabled, known accounts will be checked on demand");
+            return;
+        }
+
+        // Stream existing account IDs into the cache until the preload limit is reached.
+        // Beyond that, either keep streaming into a Bloom filter or stop early and build the cache incrementally.
         try {
-            Set<String> existingAccounts = addressRepository.findAllDistinctAccountIDs();
-            if (existingAccounts.size() < 100000) { // Only preload if reasonable size
-                knownAccountIds.addAll(existingAccounts);
-                log.info("Preloaded {} existing account IDs", existingAccounts.size());
+            if (addressReadQueries != null) {
+                finishPreload(addressReadQueries.forEachDistinctAccountId(preloadConsumer()));
+            } else if (transactionManager != null) {
+                TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+                transactionTemplate.setReadOnly(true);
+                transactionTemplate.executeWithoutResult(status -> finishPreload(preloadFromRepository()));
+            } else {
+                finishPreload(preloadFromRepository());
             }
         } catch (Exception e) {
-            log.warn("Could not preload account IDs, will build cache incrementally", e);
+            // Checking every unseen account in the database would be slower than not preloading at all
+            log.warn("Could not preload account IDs, will build cache incrementally from processed rows", e);
+            knownAccountIds.clear();
+            accountFilter = null;
+            preloadFailed = true;
+        }
+    }
+
+    private boolean preloadFromRepository() {
+        Predicate<String> consumer = preloadConsumer();
+        try (Stream<String> existingAccounts = addressRepository.streamAllDistinctAccountIDs()) {
+            Iterator<String> iterator = existingAccounts.iterator();
+            while (iterator.hasNext()) {
+                if (!consumer.test(iterator.next())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Consumer for streamed account IDs; returns false to stop the stream early
+     */
+    private Predicate<String> preloadConsumer() {
+        long[] streamed = {0};
+        return accountId -> {
+            if (accountFilter == null && streamed[0] >= preloadMaxAccounts) {
+                if (!bloomEnabled) {
+                    log.info("More than {} existing account IDs, stopped preload early", preloadMaxAccounts);
+                    return false;
+                }
+                // Keep the bounded exact set as a positive cache and continue streaming into the filter
+                ScalableBloomFilter filter = new ScalableBloomFilter(bloomExpectedAccounts, bloomFalsePositiveRate);
+                knownAccountIds.forEach(filter::put);
+                accountFilter = filter;
+                registerFilterMetrics();
+            }
+            if (accountFilter != null) {
+                accountFilter.put(accountId);
+            } else {
+                knownAccountIds.add(accountId);
+            }
+            streamed[0]++;
+            return true;
+        };
+    }
+
+    private void finishPreload(boolean complete) {
+        if (!complete) {
+            return;
+        }
+        if (accountFilter == null) {
+            knownAccountsPreloaded = true;
+            log.info("Preloaded {} existing account IDs", knownAccountIds.size());
+        } else {
+            log.info("Built account ID filter over {} existing account IDs ({} bits, expected fpp {})",
+                    accountFilter.approximateElementCount(), accountFilter.bitSize(),
+                    accountFilter.expectedFalsePositiveRate());
         }
     }
 
     @Override
     public Address process(Address address) throws Exception {
+        // Set the tempID on the current address
+        address.setTempID(assignTempId(address.getAccountID()));
+        return address;
+    }
+
+    /**
+     * Record one row of the given account and return the tempID the row should carry.
+     * Shared by the row-based and the columnar chunk processing.
+     */
+    public String assignTempId(String accountId) {
+        if (preloadPending) {
+            preloadIfPending();
+        }
         processedCount++;
 
         // Only log occasionally for performance reasons
@@ -69,30 +247,117 @@ public class AddressItemProcessor implements ItemProcessor<Address, Address> {
             log.info("Processed {} records", processedCount);
         }
 
-        String accountId = address.getAccountID();
-
         // Check if we've seen this account ID before
-        boolean isNewAccount = !knownAccountIds.contains(accountId);
+        CacheLookupEvent lookupEvent = new CacheLookupEvent();
+        lookupEvent.begin();
+        boolean isNewAccount = !isKnownAccount(accountId);
+        lookupEvent.end();
+        if (lookupEvent.shouldCommit()) {
+            lookupEvent.jobExecutionId = AccountingEvents.currentJobExecutionId();
+            lookupEvent.known = !isNewAccount;
+            lookupEvent.commit();
+        }
 
         if (isNewAccount) {
-            // Add to our known accounts cache
-            knownAccountIds.add(accountId);
-            // Assign the current global tempID
-            accountTempIdMap.put(accountId, currentGlobalTempId);
+            if (accountFilter != null) {
+                accountFilter.put(accountId);
+            }
+            if (tracksAccountsExactly()) {
+                // Add to our known accounts cache
+                knownAccountIds.add(accountId);
+                // Assign the current global tempID
+                accountTempIdMap.put(accountId, currentGlobalTempId);
+            }
         }
         // We no longer generate a new tempID for existing accounts
         // This ensures all addresses get the same tempID
 
-        // Set the tempID on the current address
-        address.setTempID(currentGlobalTempId);
-
         // Every 100,000 records, log a summary of the current state
         if (processedCount % 100000 == 0) {
             log.info("Processed {} records, current global tempID: {}, known accounts: {}", 
-                    processedCount, currentGlobalTempId, knownAccountIds.size());
+                    processedCount, currentGlobalTempId, getKnownAccountCount());
         }
 
-        return address;
+        return currentGlobalTempId;
+    }
+
+    /**
+     * Check the in-memory caches first and only go to the database for possible positives.
+     * Nothing is queried when the preload covered every account or failed.
+     */
+    private boolean isKnownAccount(String accountId) {
+        if (knownAccountIds.contains(accountId)) {
+            return true;
+        }
+        if (knownAccountsPreloaded || preloadFailed) {
+            return false;
+        }
+        ScalableBloomFilter filter = accountFilter;
+        if (filter != null && !filter.mightContain(accountId)) {
+            filterNegatives.increment();
+            return false;
+        }
+        boolean exists = addressReadQueries != null
+                ? addressReadQueries.existsByAccountId(accountId)
+                : addressRepository.existsByAccountID(accountId);
+        if (exists) {
+            // Cache the confirmed positive so we only pay the round trip once
+            if (tracksAccountsExactly() || knownAccountIds.size() < bloomConfirmedCacheMaxAccounts) {
+                knownAccountIds.add(accountId);
+            }
+        } else if (filter != null) {
+            filterFalsePositives.increment();
+        }
+        return exists;
+    }
+
+    /**
+     * False once the prefilter has taken over in batch.bloom.update.all.accounts mode
+     */
+    private boolean tracksAccountsExactly() {
+        return accountFilter == null || !bloomUpdateAllAccounts;
+    }
+
+    private void registerFilterMetrics() {
+        Gauge.builder("accounting.account.filter.fpp.expected", this,
+                        processor -> processor.accountFilter.expectedFalsePositiveRate())
+                .description("Expected false positive rate of the account ID prefilter")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("accounting.account.filter.fpp.observed", this,
+                        AddressItemProcessor::getObservedFalsePositiveRate)
+                .description("Observed false positive rate of the account ID prefilter")
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Fraction of lookups for absent account IDs that the prefilter reported as possibly present
+     */
+    public double getObservedFalsePositiveRate() {
+        long falsePositives = filterFalsePositives.sum();
+        long negatives = falsePositives + filterNegatives.sum();
+        return negatives == 0 ? 0.0 : (double) falsePositives / negatives;
+    }
+
+    /**
+     * Number of known account IDs; approximate when accounts are not tracked exactly
+     */
+    public int getKnownAccountCount() {
+        return tracksAccountsExactly() ? knownAccountIds.size() : (int) accountFilter.approximateElementCount();
+    }
+
+    /**
+     * Final tempID for a row of the given account, matching what
+     * {@link #updateAllAddressesWithFinalTempId()} would write, or null to keep the row's tempID
+     */
+    public String finalTempIdFor(String accountId) {
+        if (accountId == null) {
+            return null;
+        }
+        if (!tracksAccountsExactly()) {
+            // The final update covers every row with an account ID
+            return currentGlobalTempId;
+        }
+        return knownAccountIds.contains(accountId) ? currentGlobalTempId : null;
     }
 
     private String generateTempId() {
@@ -106,7 +371,21 @@ public class AddressItemProcessor implements ItemProcessor<Address, Address> {
      */
     public void updateAllAddressesWithFinalTempId() {
         log.info("Updating all addresses with final tempID: {}", currentGlobalTempId);
-        addressRepository.updateTempIDForAccountIDs(currentGlobalTempId, knownAccountIds);
-        log.info("Updated {} accounts with tempID: {}", knownAccountIds.size(), currentGlobalTempId);
+        ClusterMergeEvent mergeEvent = new ClusterMergeEvent();
+        mergeEvent.begin();
+        if (!tracksAccountsExactly()) {
+            // There is no exact set of accounts to pass, so every row with an account ID is updated
+            addressRepository.updateTempIDForAllAccounts(currentGlobalTempId);
+        } else {
+            addressRepository.updateTempIDForAccountIDs(currentGlobalTempId, knownAccountIds);
+        }
+        mergeEvent.end();
+        if (mergeEvent.shouldCommit()) {
+            mergeEvent.jobExecutionId = AccountingEvents.currentJobExecutionId();
+            mergeEvent.tempId = currentGlobalTempId;
+            mergeEvent.accounts = getKnownAccountCount();
+            mergeEvent.commit();
+        }
+        log.info("Updated {} accounts with tempID: {}", getKnownAccountCount(), currentGlobalTempId);
     }
 }
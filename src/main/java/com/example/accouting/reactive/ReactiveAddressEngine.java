@@ -0,0 +1,156 @@
+package com.example.accouting.reactive;
+
+import com.example.accouting.processor.AddressItemProcessor;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Non-blocking variant of the address tempID run on R2DBC. Rows are streamed from the address
+ * table with backpressure, assigned a tempID by the same {@link AddressItemProcessor} logic as
+ * addressJob, and written back in batched UPDATE statements, a few batches in flight at a time.
+ *
+ * Database I/O runs on the driver's event loop threads. The processor may still do a blocking
+ * account lookup when the account cache is not preloaded, so processing is moved to one
+ * dedicated thread instead of running on the event loop.
+ */
+public class ReactiveAddressEngine implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveAddressEngine.class);
+
+    private static final String SELECT_SQL = "SELECT id, account_id FROM address ORDER BY id";
+
+    private static final String UPDATE_SQL = "UPDATE address SET temp_id = $1 WHERE id = $2";
+
+    private final ConnectionFactory connectionFactory;
+    private final AddressItemProcessor processor;
+    private final int batchSize;
+    private final int fetchSize;
+    private final int writeConcurrency;
+    private final Scheduler processingScheduler = Schedulers.newSingle("reactive-process");
+
+    public ReactiveAddressEngine(ConnectionFactory connectionFactory, AddressItemProcessor processor,
+                                 int batchSize, int fetchSize, int writeConcurrency) {
+        this.connectionFactory = connectionFactory;
+        this.processor = processor;
+        this.batchSize = batchSize;
+        this.fetchSize = fetchSize;
+        this.writeConcurrency = writeConcurrency;
+    }
+
+    /**
+     * Pooled connection factory for an r2dbc: URL, e.g. r2dbc:postgresql://localhost:5432/accountingdb
+     * or r2dbc:h2:mem:///testdb
+     */
+    public static ConnectionPool connectionPool(String url, String username, String password, int maxSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive")
+                .initialSize(1)
+                .maxSize(maxSize)
+                .build());
+    }
+
+    /**
+     * Assign tempIDs to every address row
+     *
+     * @return the number of rows updated
+     */
+    public Mono<Long> run() {
+        long start = System.nanoTime();
+        return readRows()
+                .publishOn(processingScheduler, batchSize)
+                .map(row -> new TempIdUpdate(row.id, processor.assignTempId(row.accountId)))
+                .buffer(batchSize)
+                .flatMap(this::writeBatch, writeConcurrency)
+                .reduce(0L, Long::sum)
+                .doOnSuccess(rows -> log.info("Reactive run updated {} rows in {} ms",
+                        rows, (System.nanoTime() - start) / 1_000_000));
+    }
+
+    private Flux<AddressRow> readRows() {
+        // A transaction keeps the PostgreSQL portal open so rows arrive fetchSize at a time
+        return Flux.usingWhen(connectionFactory.create(),
+                connection -> Mono.from(connection.beginTransaction())
+                        .thenMany(Flux.from(connection.createStatement(SELECT_SQL).fetchSize(fetchSize).execute()))
+                        .concatMap(result -> result.map((row, metadata) ->
+                                new AddressRow(row.get("id", Long.class), row.get("account_id", String.class)))),
+                connection -> Flux.concat(connection.commitTransaction(), connection.close()),
+                (connection, error) -> rollbackAndClose(connection),
+                ReactiveAddressEngine::rollbackAndClose);
+    }
+
+    private Mono<Long> writeBatch(List<TempIdUpdate> updates) {
+        return Mono.usingWhen(connectionFactory.create(),
+                connection -> {
+                    Statement statement = connection.createStatement(UPDATE_SQL);
+                    for (int i = 0; i < updates.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        TempIdUpdate update = updates.get(i);
+                        statement.bind(0, update.tempId).bind(1, update.id);
+                    }
+                    return Mono.from(connection.beginTransaction())
+                            .thenMany(Flux.from(statement.execute()).flatMap(Result::getRowsUpdated))
+                            .reduce(0L, Long::sum)
+                            .flatMap(rows -> Mono.from(connection.commitTransaction()).thenReturn(rows));
+                },
+                Connection::close,
+                (connection, error) -> rollbackAndClose(connection),
+                ReactiveAddressEngine::rollbackAndClose);
+    }
+
+    /**
+     * End the connection's transaction before it goes back to the pool, which would otherwise
+     * hand it out again with the transaction still open
+     */
+    private static Publisher<Void> rollbackAndClose(Connection connection) {
+        return Flux.concat(connection.rollbackTransaction(), connection.close());
+    }
+
+    @Override
+    public void close() {
+        processingScheduler.dispose();
+        if (connectionFactory instanceof ConnectionPool) {
+            ((ConnectionPool) connectionFactory).dispose();
+        }
+    }
+
+    private static final class AddressRow {
+        private final long id;
+        private final String accountId;
+
+        private AddressRow(long id, String accountId) {
+            this.id = id;
+            this.accountId = accountId;
+        }
+    }
+
+    private static final class TempIdUpdate {
+        private final long id;
+        private final String tempId;
+
+        private TempIdUpdate(long id, String tempId) {
+            this.id = id;
+            this.tempId = tempId;
+        }
+    }
+}
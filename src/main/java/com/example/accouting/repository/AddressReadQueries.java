@@ -0,0 +1,57 @@
+package com.example.accouting.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.Iterator;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Read-only address queries that run against the read datasource (the replica when one is
+ * configured), so large scans do not compete with writes on the primary pool.
+ */
+public class AddressReadQueries {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public AddressReadQueries(DataSource readDataSource) {
+        this.jdbcTemplate = new JdbcTemplate(readDataSource);
+        this.jdbcTemplate.setFetchSize(10000);
+        // PostgreSQL only honours the fetch size (server-side cursor) inside a transaction
+        this.readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(readDataSource));
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Stream distinct account IDs to the consumer until it returns false
+     *
+     * @return true if every account ID was consumed, false if the consumer stopped early
+     */
+    public boolean forEachDistinctAccountId(Predicate<String> consumer) {
+        return Boolean.TRUE.equals(readOnlyTransaction.execute(status -> {
+            try (Stream<String> accountIds = jdbcTemplate.queryForStream(
+                    "SELECT DISTINCT account_id FROM address", (rs, rowNum) -> rs.getString(1))) {
+                Iterator<String> iterator = accountIds.iterator();
+                while (iterator.hasNext()) {
+                    if (!consumer.test(iterator.next())) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }));
+    }
+
+    public boolean existsByAccountId(String accountID) {
+        return Boolean.TRUE.equals(jdbcTemplate.query(
+                "SELECT 1 FROM address WHERE account_id = ? FETCH FIRST 1 ROWS ONLY",
+                (ResultSetExtractor<Boolean>) ResultSet::next, accountID));
+    }
+}
@@ -1,15 +1,19 @@
 package com.example.accouting.repository;
 
 import com.example.accouting.model.Address;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface AddressRepository extends JpaRepository<Address, Long> {
@@ -21,6 +25,9 @@ public interface AddressRepository extends JpaRepository<Address, Long> {
     // Find all addresses by account ID
     List<Address> findByAccountID(String accountID);
 
+    // Check whether any address has the given account ID
+    boolean existsByAccountID(String accountID);
+
     // Find all distinct account IDs
     @Query("SELECT DISTINCT a.accountID FROM Address a")
     Set<String> findAllDistinctAccountIDs();
@@ -29,6 +36,22 @@ public interface AddressRepository extends JpaRepository<Address, Long> {
     @Query("SELECT DISTINCT a.aicGroupID FROM Address a")
     Set<String> findAllDistinctAicGroupIDs();
 
+    // Stream all distinct account IDs over a server-side cursor; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT DISTINCT a.accountID FROM Address a")
+    Stream<String> streamAllDistinctAccountIDs();
+
+    // Stream all distinct AIC group IDs over a server-side cursor; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT DISTINCT a.aicGroupID FROM Address a")
+    Stream<String> streamAllDistinctAicGroupIDs();
+
     // Find all account IDs for a specific AIC group ID
     @Query("SELECT DISTINCT a.accountID FROM Address a WHERE a.aicGroupID = :aicGroupID")
     Set<String> findAccountIDsByAicGroupID(@Param("aicGroupID") String aicGroupID);
@@ -38,4 +61,10 @@ public interface AddressRepository extends JpaRepository<Address, Long> {
     @Transactional
     @Query("UPDATE Address a SET a.tempID = :tempID WHERE a.accountID IN :accountIDs")
     void updateTempIDForAccountIDs(@Param("tempID") String tempID, @Param("accountIDs") Set<String> accountIDs);
+
+    // Update tempID for all addresses that have an account ID
+    @Modifying
+    @Transactional
+    @Query("UPDATE Address a SET a.tempID = :tempID WHERE a.accountID IS NOT NULL")
+    void updateTempIDForAllAccounts(@Param("tempID") String tempID);
 }
@@ -0,0 +1,35 @@
+package com.example.accouting.repository;
+
+import com.example.accouting.model.Address;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps address rows read with plain JDBC (id, org_id, aic_group_id, account_id, temp_id)
+ */
+public class AddressRowMapper implements RowMapper<Address> {
+
+    @Override
+    public Address mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new Address(
+                rs.getLong("id"),
+                rs.getString("org_id"),
+                rs.getString("aic_group_id"),
+                rs.getString("account_id"),
+                rs.getString("temp_id"));
+    }
+
+    /**
+     * Approximate size of a row on the wire: the id plus the ID strings (ASCII in practice)
+     */
+    public static long estimatedSize(Address address) {
+        return Long.BYTES + length(address.getOrgID()) + length(address.getAicGroupID())
+                + length(address.getAccountID()) + length(address.getTempID());
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.accouting.repository;
+
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+
+/**
+ * Builds a SQL expression that assigns a string column to one of N hash buckets,
+ * so that rows with the same value always land in the same partition. NULL hashes like the
+ * empty string, so those rows get a real bucket too.
+ */
+public final class HashBucketSql {
+
+    private HashBucketSql() {
+    }
+
+    /**
+     * @return SQL expression evaluating to a bucket number in [0, buckets)
+     */
+    public static String bucketExpression(DataSource dataSource, String column, int buckets) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("buckets must be positive: " + buckets);
+        }
+        DatabaseType databaseType;
+        try {
+            databaseType = DatabaseType.fromMetaData(dataSource);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Could not determine database type for hash partitioning", e);
+        }
+        String key = "COALESCE(" + column + ", '')";
+        switch (databaseType) {
+            case POSTGRES:
+                // hashtext returns a signed int; widen before ABS to avoid overflow on Integer.MIN_VALUE
+                return "MOD(ABS(hashtext(" + key + ")::bigint), " + buckets + ")";
+            case H2:
+                return "ORA_HASH(" + key + ", " + (buckets - 1) + ")";
+            default:
+                throw new IllegalStateException("Hash partitioning is not supported on " + databaseType);
+        }
+    }
+}
@@ -1,14 +1,24 @@
 package com.example.accouting.runner;
 
 import com.example.accouting.model.Address;
+import com.example.accouting.lookup.TempIdLookupService;
+import com.example.accouting.partition.FairShareShardScheduler;
+import com.example.accouting.processor.AddressItemProcessor;
+import com.example.accouting.reactive.ReactiveAddressEngine;
 import com.example.accouting.repository.AddressRepository;
+import com.example.accouting.streaming.ContinuousAddressProcessor;
+import com.example.accouting.summary.JobSummaryListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
@@ -29,21 +39,80 @@ public class BatchJobRunner implements CommandLineRunner {
     @Autowired
     private AddressRepository addressRepository;
 
+    @Autowired
+    private ContinuousAddressProcessor continuousAddressProcessor;
+
+    @Autowired
+    private FairShareShardScheduler fairShareShardScheduler;
+
+    // Only present with batch.reactive.enabled=true
+    @Autowired
+    private ObjectProvider<ReactiveAddressEngine> reactiveAddressEngine;
+
+    @Autowired
+    private AddressItemProcessor processor;
+
+    @Autowired
+    private TempIdLookupService tempIdLookupService;
+
+    // Run one job per org shard concurrently instead of a single addressJob
+    @Value("${batch.shard.enabled:false}")
+    private boolean shardEnabled;
+
+    // After the initial batch run, keep processing new rows as they arrive
+    @Value("${batch.streaming.enabled:false}")
+    private boolean streamingEnabled;
+
+    // Admin command: only disable the change capture trigger of continuous processing, then exit
+    @Value("${batch.streaming.capture.disable:false}")
+    private boolean disableCapture;
+
     @Override
     public void run(String... args) throws Exception {
+        if (disableCapture) {
+            continuousAddressProcessor.disableChangeCapture();
+            return;
+        }
+
         // Initialize sample data
         initSampleData();
 
-        // Run the batch job
-        JobParameters jobParameters = new JobParametersBuilder()
-                .addLong("time", System.currentTimeMillis())
-                .toJobParameters();
+        ReactiveAddressEngine reactiveEngine = reactiveAddressEngine.getIfAvailable();
+        if (reactiveEngine != null) {
+            // Same steps as addressJob: assign tempIDs, then the final update and snapshot refresh
+            Long rows = reactiveEngine.run().block();
+            processor.updateAllAddressesWithFinalTempId();
+            tempIdLookupService.reload();
+            log.info("Final results: reactive run updated {} rows", rows);
+        } else if (shardEnabled) {
+            for (JobExecution jobExecution : fairShareShardScheduler.run()) {
+                log.info("{} {} ended with {}", jobExecution.getJobInstance().getJobName(),
+                        jobExecution.getJobParameters(), jobExecution.getStatus());
+            }
+        } else {
+            // Run the batch job
+            JobParameters jobParameters = new JobParametersBuilder()
+                    .addLong("time", System.currentTimeMillis())
+                    .toJobParameters();
 
-        jobLauncher.run(addressJob, jobParameters);
+            JobExecution jobExecution = jobLauncher.run(addressJob, jobParameters);
+            logSummary(jobExecution);
+        }
+
+        if (streamingEnabled) {
+            continuousAddressProcessor.runUntilStopped();
+        }
+    }
 
-        // Print final results
-        log.info("Final results:");
-        addressRepository.findAll().forEach(address -> log.info(address.toString()));
+    private void logSummary(JobExecution jobExecution) {
+        // Print the run summary collected during processing instead of re-reading the table
+        log.info("Final results: job {} ended with {}", jobExecution.getId(), jobExecution.getStatus());
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            stepExecution.getExecutionContext().entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(JobSummaryListener.KEY_PREFIX))
+                    .forEach(entry -> log.info("{} {}: {}", stepExecution.getStepName(),
+                            entry.getKey().substring(JobSummaryListener.KEY_PREFIX.length()), entry.getValue()));
+        }
     }
 
     private void initSampleData() {
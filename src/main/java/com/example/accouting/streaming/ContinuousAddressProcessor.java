@@ -0,0 +1,236 @@
+package com.example.accouting.streaming;
+
+import com.example.accouting.model.Address;
+import com.example.accouting.processor.AddressItemProcessor;
+import com.example.accouting.repository.AddressRowMapper;
+import com.example.accouting.support.jdbc.PostgresJdbc;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Near-real-time processing mode. New address rows are picked up in micro-batches, run through
+ * the same AddressItemProcessor as addressJob and written back in one transaction per batch.
+ *
+ * On PostgreSQL inserts are captured by a trigger into the address_change outbox table and
+ * LISTEN/NOTIFY wakes the loop up; claimed changes use SKIP LOCKED so several instances can
+ * share the feed. Rows inserted before the trigger was installed are picked up by a catch-up
+ * sweep over rows without a tempID when processing starts. Other databases (H2) fall back to
+ * polling for rows without a tempID.
+ *
+ * Because the processor assigns accounts to a shared tempID, a new row that links two existing
+ * groups is written with the tempID both groups already carry, so incremental results match a
+ * full batch run.
+ */
+@Component
+public class ContinuousAddressProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(ContinuousAddressProcessor.class);
+
+    private static final String CHANNEL = "address_change";
+
+    private static final String CLAIM_CHANGES_SQL =
+            "SELECT c.change_id, a.id, a.org_id, a.aic_group_id, a.account_id, a.temp_id " +
+            "FROM address_change c JOIN address a ON a.id = c.address_id " +
+            "ORDER BY c.change_id LIMIT ? FOR UPDATE OF c SKIP LOCKED";
+
+    private static final String POLL_UNASSIGNED_SQL =
+            "SELECT id, org_id, aic_group_id, account_id, temp_id FROM address " +
+            "WHERE temp_id IS NULL ORDER BY id LIMIT ?";
+
+    private static final String SWEEP_UNASSIGNED_SQL =
+            "SELECT id, org_id, aic_group_id, account_id, temp_id FROM address a " +
+            "WHERE temp_id IS NULL AND id > ? " +
+            "AND NOT EXISTS (SELECT 1 FROM address_change c WHERE c.address_id = a.id) " +
+            "ORDER BY id LIMIT ?";
+
+    private static final String UPDATE_TEMP_ID_SQL = "UPDATE address SET temp_id = ? WHERE id = ?";
+
+    private static final String DELETE_CHANGE_SQL = "DELETE FROM address_change WHERE change_id = ?";
+
+    @Autowired
+    private AddressItemProcessor processor;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Maximum number of rows per micro-batch
+    @Value("${batch.streaming.batch.size:5000}")
+    private int batchSize;
+
+    // How long to wait for new rows when the feed is empty
+    @Value("${batch.streaming.poll.interval.ms:500}")
+    private int pollIntervalMs;
+
+    private volatile boolean running;
+
+    private long processedTotal;
+
+    /**
+     * Process new rows until {@link #stop()} is called. Blocks the calling thread.
+     */
+    public void runUntilStopped() throws Exception {
+        boolean outbox = isPostgres();
+        log.info("Continuous processing started using {} feed, batch size {}",
+                outbox ? "outbox (LISTEN/NOTIFY)" : "polling", batchSize);
+
+        running = true;
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try (Connection listenConnection = outbox ? primaryDataSource.getConnection() : null) {
+            if (listenConnection != null) {
+                // Listen before the trigger exists so that no notification in between is missed
+                try (Statement statement = listenConnection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                installChangeCapture();
+                sweepUnassigned(transactionTemplate);
+            }
+            while (running) {
+                long start = System.nanoTime();
+                Integer processed = transactionTemplate.execute(status -> processBatch(outbox));
+                if (processed != null && processed > 0) {
+                    processedTotal += processed;
+                    log.info("Processed micro-batch of {} rows in {} ms ({} total)",
+                            processed, (System.nanoTime() - start) / 1_000_000, processedTotal);
+                }
+                if (processed == null || processed < batchSize) {
+                    // Caught up; wait for a notification or the next poll
+                    awaitChanges(listenConnection);
+                }
+            }
+        }
+        log.info("Continuous processing stopped after {} rows", processedTotal);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Disable the change capture trigger, so inserts no longer feed the outbox while continuous
+     * processing is not in use. The outbox and its pending changes are kept for the next start,
+     * which enables the trigger again. Does nothing on databases without the outbox.
+     */
+    public void disableChangeCapture() throws Exception {
+        if (!isPostgres()) {
+            return;
+        }
+        executeScript("schema/address-change-capture-disable-postgresql.sql");
+        log.info("Disabled address change capture trigger");
+    }
+
+    /**
+     * Assign tempIDs to rows without one that the outbox does not know about, i.e. rows inserted
+     * while the trigger was not installed
+     */
+    private void sweepUnassigned(TransactionTemplate transactionTemplate) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(primaryDataSource);
+        long[] lastId = {0};
+        long swept = 0;
+        int processed;
+        do {
+            processed = transactionTemplate.execute(status -> {
+                List<Address> addresses = jdbcTemplate.query(SWEEP_UNASSIGNED_SQL, new AddressRowMapper(),
+                        lastId[0], batchSize);
+                if (!addresses.isEmpty()) {
+                    lastId[0] = addresses.get(addresses.size() - 1).getId();
+                }
+                return writeBatch(jdbcTemplate, addresses, List.of());
+            });
+            swept += processed;
+        } while (running && processed == batchSize);
+        processedTotal += swept;
+        log.info("Catch-up sweep assigned tempIDs to {} rows inserted without change capture", swept);
+    }
+
+    private int processBatch(boolean outbox) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(primaryDataSource);
+        List<Long> changeIds = new ArrayList<>();
+        List<Address> addresses;
+        if (outbox) {
+            AddressRowMapper rowMapper = new AddressRowMapper();
+            addresses = jdbcTemplate.query(CLAIM_CHANGES_SQL, (rs, rowNum) -> {
+                changeIds.add(rs.getLong("change_id"));
+                return rowMapper.mapRow(rs, rowNum);
+            }, batchSize);
+        } else {
+            addresses = jdbcTemplate.query(POLL_UNASSIGNED_SQL, new AddressRowMapper(), batchSize);
+        }
+        return writeBatch(jdbcTemplate, addresses, changeIds);
+    }
+
+    private int writeBatch(JdbcTemplate jdbcTemplate, List<Address> addresses, List<Long> changeIds) {
+        if (addresses.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> updates = new ArrayList<>(addresses.size());
+        for (Address address : addresses) {
+            Address processed;
+            try {
+                processed = processor.process(address);
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not process address " + address.getId(), e);
+            }
+            updates.add(new Object[]{processed.getTempID(), processed.getId()});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_TEMP_ID_SQL, updates);
+
+        if (!changeIds.isEmpty()) {
+            List<Object[]> deletes = new ArrayList<>(changeIds.size());
+            changeIds.forEach(changeId -> deletes.add(new Object[]{changeId}));
+            jdbcTemplate.batchUpdate(DELETE_CHANGE_SQL, deletes);
+        }
+        return addresses.size();
+    }
+
+    private void awaitChanges(Connection listenConnection) throws Exception {
+        if (listenConnection != null) {
+            // Returns as soon as a notification arrives, or after the poll interval
+            PostgresJdbc.awaitNotifications(listenConnection, pollIntervalMs);
+        } else {
+            Thread.sleep(pollIntervalMs);
+        }
+    }
+
+    private void installChangeCapture() throws Exception {
+        // Keeps an existing trigger and outbox, so restarts and other instances don't lose changes
+        executeScript("schema/address-change-capture-postgresql.sql");
+        log.info("Installed address change capture trigger");
+    }
+
+    private void executeScript(String path) throws Exception {
+        String script = new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8);
+        // The PostgreSQL driver runs multi-statement scripts, including dollar-quoted function bodies
+        new JdbcTemplate(primaryDataSource).execute(script);
+    }
+
+    private boolean isPostgres() throws Exception {
+        return DatabaseType.fromMetaData(primaryDataSource) == DatabaseType.POSTGRES;
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.accouting.summary;
+
+import com.example.accouting.chunk.AddressChunk;
+import com.example.accouting.chunk.StringDictionary;
+import com.example.accouting.model.Address;
+import com.example.accouting.support.HyperLogLog;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.item.Chunk;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Incremental statistics over written rows, grouped into clusters by tempID.
+ * Updated after every chunk write, so the job summary never has to re-read the table.
+ * Distinct account IDs are estimated with a HyperLogLog sketch, so memory stays fixed.
+ * Also keeps a bounded reservoir sample of written rows for logging.
+ */
+public class ClusterStatistics implements ItemWriteListener<Address> {
+
+    private final Map<String, LongAdder> clusterSizes = new ConcurrentHashMap<>();
+
+    private final LongAdder rowsWritten = new LongAdder();
+
+    // Guarded by itself; replaced on reset
+    private final Object accountsLock = new Object();
+    private HyperLogLog accounts = new HyperLogLog();
+
+    private final int sampleSize;
+
+    private final List<String> sample = new ArrayList<>();
+
+    private long sampleSeen;
+
+    public ClusterStatistics(int sampleSize) {
+        this(sampleSize, true);
+    }
+
+    /**
+     * @param registerGauges false for short-lived instances, e.g. one per org shard, which would
+     *                       otherwise compete for the same gauge names
+     */
+    public ClusterStatistics(int sampleSize, boolean registerGauges) {
+        this.sampleSize = sampleSize;
+        if (!registerGauges) {
+            return;
+        }
+        Gauge.builder("accounting.summary.rows.written", rowsWritten, LongAdder::sum)
+                .description("Rows written by the current or last address run")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("accounting.summary.clusters", clusterSizes, Map::size)
+                .description("Distinct tempID clusters in the current or last address run")
+                .register(Metrics.globalRegistry);
+    }
+
+    @Override
+    public void afterWrite(Chunk<? extends Address> items) {
+        for (Address address : items) {
+            rowsWritten.increment();
+            if (address.getTempID() != null) {
+                clusterSizes.computeIfAbsent(address.getTempID(), tempID -> new LongAdder()).increment();
+            }
+        }
+        synchronized (accountsLock) {
+            for (Address address : items) {
+                accounts.add(address.getAccountID());
+            }
+        }
+        if (sampleSize > 0) {
+            sample(items);
+        }
+    }
+
+    /**
+     * Same as {@link #afterWrite} for a columnar chunk; counts per tempID code first, so each
+     * distinct tempID in the chunk costs one map update
+     */
+    public void recordColumns(AddressChunk chunk) {
+        StringDictionary tempIds = chunk.getTempIds();
+        long[] counts = new long[tempIds.size()];
+        for (int row = 0; row < chunk.size(); row++) {
+            int code = chunk.getTempIdCode(row);
+            if (code != StringDictionary.NULL_CODE) {
+                counts[code]++;
+            }
+        }
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                clusterSizes.computeIfAbsent(tempIds.decode(code), tempID -> new LongAdder()).add(counts[code]);
+            }
+        }
+        rowsWritten.add(chunk.size());
+        StringDictionary accountIds = chunk.getAccounts();
+        synchronized (accountsLock) {
+            for (int code = 0; code < accountIds.size(); code++) {
+                accounts.add(accountIds.decode(code));
+            }
+        }
+        if (sampleSize > 0) {
+            synchronized (sample) {
+                for (int row = 0; row < chunk.size(); row++) {
+                    offerSample(chunk, row);
+                }
+            }
+        }
+    }
+
+    public void reset() {
+        clusterSizes.clear();
+        rowsWritten.reset();
+        synchronized (accountsLock) {
+            accounts = new HyperLogLog();
+        }
+        synchronized (sample) {
+            sample.clear();
+            sampleSeen = 0;
+        }
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.sum();
+    }
+
+    /**
+     * @return estimated number of distinct account IDs among the written rows
+     */
+    public long getDistinctAccounts() {
+        synchronized (accountsLock) {
+            return accounts.estimate();
+        }
+    }
+
+    public int getClusterCount() {
+        return clusterSizes.size();
+    }
+
+    /**
+     * Cluster sizes (rows per tempID) bucketed by powers of two, e.g. "1", "2-3", "4-7"
+     */
+    public Map<String, Long> sizeHistogram() {
+        TreeMap<Integer, Long> byExponent = new TreeMap<>();
+        for (LongAdder size : clusterSizes.values()) {
+            long rows = size.sum();
+            int exponent = 63 - Long.numberOfLeadingZeros(Math.max(1, rows));
+            byExponent.merge(exponent, 1L, Long::sum);
+        }
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        byExponent.forEach((exponent, clusters) -> {
+            long low = 1L << exponent;
+            long high = (low << 1) - 1;
+            histogram.put(low == high ? String.valueOf(low) : low + "-" + high, clusters);
+        });
+        return histogram;
+    }
+
+    /**
+     * @return the largest clusters by row count, largest first
+     */
+    public Map<String, Long> largestClusters(int limit) {
+        PriorityQueue<Map.Entry<String, Long>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        clusterSizes.forEach((tempID, size) -> {
+            top.add(Map.entry(tempID, size.sum()));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+        List<Map.Entry<String, Long>> sorted = new ArrayList<>(top);
+        sorted.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        Map<String, Long> largest = new LinkedHashMap<>();
+        sorted.forEach(entry -> largest.put(entry.getKey(), entry.getValue()));
+        return largest;
+    }
+
+    public List<String> getSample() {
+        synchronized (sample) {
+            return new ArrayList<>(sample);
+        }
+    }
+
+    private void sample(Chunk<? extends Address> items) {
+        synchronized (sample) {
+            for (Address address : items) {
+                sampleSeen++;
+                if (sample.size() < sampleSize) {
+                    sample.add(address.toString());
+                } else {
+                    long slot = ThreadLocalRandom.current().nextLong(sampleSeen);
+                    if (slot < sampleSize) {
+                        sample.set((int) slot, address.toString());
+                    }
+                }
+            }
+        }
+    }
+
+    // Caller holds the sample lock; rows are only materialized when they enter the sample
+    private void offerSample(AddressChunk chunk, int row) {
+        sampleSeen++;
+        if (sample.size() < sampleSize) {
+            sample.add(chunk.toAddress(row).toString());
+        } else {
+            long slot = ThreadLocalRandom.current().nextLong(sampleSeen);
+            if (slot < sampleSize) {
+                sample.set((int) slot, chunk.toAddress(row).toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.accouting.summary;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Resets the cluster statistics when the processing step starts and, when it ends, stores a
+ * summary of the run in the step ExecutionContext under the "summary." keys.
+ */
+public class JobSummaryListener implements StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(JobSummaryListener.class);
+
+    public static final String KEY_PREFIX = "summary.";
+
+    private static final int LARGEST_CLUSTERS = 10;
+
+    private final ClusterStatistics clusterStatistics;
+
+    public JobSummaryListener(ClusterStatistics clusterStatistics) {
+        this.clusterStatistics = clusterStatistics;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        clusterStatistics.reset();
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        ExecutionContext context = stepExecution.getExecutionContext();
+        context.putLong(KEY_PREFIX + "rowsRead", stepExecution.getReadCount());
+        context.putLong(KEY_PREFIX + "rowsProcessed", stepExecution.getReadCount() - stepExecution.getFilterCount()
+                - stepExecution.getProcessSkipCount());
+        context.putLong(KEY_PREFIX + "rowsSkipped", stepExecution.getSkipCount());
+        context.putLong(KEY_PREFIX + "rowsWritten", stepExecution.getWriteCount());
+        context.putLong(KEY_PREFIX + "distinctAccounts", clusterStatistics.getDistinctAccounts());
+        context.putLong(KEY_PREFIX + "clusters", clusterStatistics.getClusterCount());
+
+        Map<String, Long> histogram = clusterStatistics.sizeHistogram();
+        Map<String, Long> largest = clusterStatistics.largestClusters(LARGEST_CLUSTERS);
+        context.putString(KEY_PREFIX + "clusterSizeHistogram", histogram.toString());
+        context.putString(KEY_PREFIX + "largestClusters", largest.toString());
+        context.put(KEY_PREFIX + "sample", new ArrayList<>(clusterStatistics.getSample()));
+
+        log.info("Step {} summary: read {}, skipped {}, written {}, distinct accounts {}, clusters {}",
+                stepExecution.getStepName(), stepExecution.getReadCount(), stepExecution.getSkipCount(),
+                stepExecution.getWriteCount(), clusterStatistics.getDistinctAccounts(), clusterStatistics.getClusterCount());
+        log.info("Cluster size histogram (rows per cluster -> clusters): {}", histogram);
+        log.info("Largest clusters (tempID -> rows): {}", largest);
+        return stepExecution.getExitStatus();
+    }
+}
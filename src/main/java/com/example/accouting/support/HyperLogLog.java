@@ -0,0 +1,105 @@
+package com.example.accouting.support;
+
+/**
+ * HyperLogLog sketch for estimating the number of distinct strings in a stream in fixed memory.
+ * With precision p the sketch holds 2^p one-byte registers and has a standard error of about
+ * 1.04 / sqrt(2^p), e.g. 0.8% for the default p = 14 (16 KiB).
+ */
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("precision must be in [4, 18]: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public void add(String value) {
+        if (value == null) {
+            return;
+        }
+        long hash = hash(value);
+        int index = (int) (hash >>> (Long.SIZE - precision));
+        // Position of the first set bit in the remaining bits; the sentinel bit bounds the rank
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    /**
+     * Fold another sketch of the same precision into this one
+     */
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches with precision "
+                    + precision + " and " + other.precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Math.scalb(1.0, -register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Linear counting is more accurate while many registers are still empty
+            estimate = m * Math.log((double) m / zeros);
+        }
+        // A 64-bit hash makes the large range correction unnecessary
+        return Math.round(estimate);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    private static double alpha(int m) {
+        if (m == 16) {
+            return 0.673;
+        }
+        if (m == 32) {
+            return 0.697;
+        }
+        if (m == 64) {
+            return 0.709;
+        }
+        return 0.7213 / (1 + 1.079 / m);
+    }
+
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        // MurmurHash3 finalizer, so that the leading bits are well mixed
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
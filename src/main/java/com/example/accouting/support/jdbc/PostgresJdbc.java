@@ -0,0 +1,55 @@
+package com.example.accouting.support.jdbc;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Access to the PostgreSQL driver extensions (COPY, LISTEN/NOTIFY) through the pooled
+ * connection wrapper. The driver is an optional dependency: it is packaged with the application,
+ * but callers must check {@link #isPostgres(Connection)} before using the other methods.
+ */
+public final class PostgresJdbc {
+
+    private PostgresJdbc() {
+    }
+
+    /**
+     * @return true if the connection is a PostgreSQL driver connection
+     */
+    public static boolean isPostgres(Connection connection) throws SQLException {
+        return connection.isWrapperFor(PGConnection.class);
+    }
+
+    /**
+     * Run COPY ... FROM STDIN with the given text-format data
+     *
+     * @return number of rows copied
+     */
+    public static long copyIn(Connection connection, String sql, Reader data) throws SQLException {
+        try {
+            return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, data);
+        } catch (IOException e) {
+            throw new SQLException("Could not read COPY data", e);
+        }
+    }
+
+    /**
+     * Start COPY ... FROM STDIN; the caller writes the data and ends the copy
+     */
+    public static CopyIn openCopyIn(Connection connection, String sql) throws SQLException {
+        return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+    }
+
+    /**
+     * Wait up to the timeout for notifications on a connection that has issued LISTEN;
+     * returns as soon as one arrives
+     */
+    public static void awaitNotifications(Connection connection, int timeoutMillis) throws SQLException {
+        connection.unwrap(PGConnection.class).getNotifications(timeoutMillis);
+    }
+}
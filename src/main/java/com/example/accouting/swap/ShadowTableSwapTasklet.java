@@ -0,0 +1,296 @@
+package com.example.accouting.swap;
+
+import com.example.accouting.support.jdbc.PostgresJdbc;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Function;
+
+/**
+ * Finalizes tempIDs by building a complete copy of the address table with the final
+ * assignment and swapping it in, instead of updating rows in place.
+ *
+ * On PostgreSQL the shadow table is UNLOGGED while it is loaded with COPY and indexed, then
+ * made durable with SET LOGGED. The swap runs in one transaction under an exclusive lock: rows
+ * inserted since the copy started are carried over, the tables are renamed, the old table is
+ * dropped and index, constraint and sequence names are restored. Readers see either the old or
+ * the new table, never a half-updated one. On H2 (tests) the same steps run with batched
+ * inserts, but DDL commits implicitly, so the swap is not atomic there.
+ *
+ * The swap assumes the job is the only writer of existing rows while it runs; updates made to
+ * already copied rows in the meantime are lost.
+ */
+public class ShadowTableSwapTasklet implements Tasklet {
+
+    private static final Logger log = LoggerFactory.getLogger(ShadowTableSwapTasklet.class);
+
+    static final String SHADOW_TABLE = "address_shadow";
+
+    private static final String SELECT_SQL =
+            "SELECT id, org_id, aic_group_id, account_id, temp_id FROM address ORDER BY id";
+
+    private static final String COPY_SQL =
+            "COPY address_shadow (id, org_id, aic_group_id, account_id, temp_id) FROM STDIN WITH (FORMAT text)";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO address_shadow (id, org_id, aic_group_id, account_id, temp_id) VALUES (?, ?, ?, ?, ?)";
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+    private final DataSource dataSource;
+
+    // Final tempID for an account, or null to keep the row's current tempID
+    private final Function<String, String> finalTempIds;
+
+    public ShadowTableSwapTasklet(DataSource dataSource, Function<String, String> finalTempIds) {
+        this.dataSource = dataSource;
+        this.finalTempIds = finalTempIds;
+    }
+
+    @Override
+    public RepeatStatus execute(StepContribution contribution, ChunkContext chunkContext) throws Exception {
+        boolean postgres = DatabaseType.fromMetaData(dataSource) == DatabaseType.POSTGRES;
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        long start = System.nanoTime();
+
+        createShadowTable(jdbcTemplate, postgres);
+        long[] copied = copyRows(postgres);
+        long rows = copied[0];
+        long maxId = copied[1];
+        long copyMillis = (System.nanoTime() - start) / 1_000_000;
+
+        buildIndexes(jdbcTemplate, postgres, maxId);
+        long indexMillis = (System.nanoTime() - start) / 1_000_000 - copyMillis;
+
+        long swapStart = System.nanoTime();
+        int carriedOver = swap(postgres, maxId);
+
+        contribution.incrementWriteCount(rows + carriedOver);
+        log.info("Swapped in shadow address table: {} rows copied in {} ms, indexed in {} ms, "
+                        + "swapped in {} ms ({} rows inserted during the build carried over)",
+                rows, copyMillis, indexMillis, (System.nanoTime() - swapStart) / 1_000_000, carriedOver);
+        return RepeatStatus.FINISHED;
+    }
+
+    private void createShadowTable(JdbcTemplate jdbcTemplate, boolean postgres) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + SHADOW_TABLE);
+        if (postgres) {
+            // No indexes or primary key yet; they are built once after the load
+            jdbcTemplate.execute("CREATE UNLOGGED TABLE " + SHADOW_TABLE
+                    + " (LIKE address INCLUDING DEFAULTS INCLUDING IDENTITY)");
+        } else {
+            jdbcTemplate.execute("CREATE TABLE " + SHADOW_TABLE + " ("
+                    + "id BIGINT GENERATED BY DEFAULT AS IDENTITY, org_id VARCHAR(255), aic_group_id VARCHAR(255), "
+                    + "account_id VARCHAR(255), temp_id VARCHAR(255))");
+        }
+    }
+
+    /**
+     * Stream every address row with its final tempID into the shadow table
+     *
+     * @return the number of rows copied and the highest id copied
+     */
+    private long[] copyRows(boolean postgres) throws SQLException {
+        long rows = 0;
+        long maxId = 0;
+        try (Connection source = dataSource.getConnection();
+             Connection target = dataSource.getConnection()) {
+            // PostgreSQL only streams with a fetch size inside a transaction
+            source.setAutoCommit(false);
+            target.setAutoCommit(false);
+            try (PreparedStatement select = source.prepareStatement(SELECT_SQL)) {
+                select.setFetchSize(10000);
+                try (ResultSet rs = select.executeQuery()) {
+                    RowSink sink = postgres ? new CopySink(target) : new InsertSink(target);
+                    while (rs.next()) {
+                        long id = rs.getLong(1);
+                        String accountID = rs.getString(4);
+                        String finalTempId = finalTempIds.apply(accountID);
+                        sink.add(id, rs.getString(2), rs.getString(3), accountID,
+                                finalTempId != null ? finalTempId : rs.getString(5));
+                        maxId = Math.max(maxId, id);
+                        rows++;
+                    }
+                    sink.finish();
+                }
+            }
+            target.commit();
+            source.commit();
+        }
+        return new long[]{rows, maxId};
+    }
+
+    private void buildIndexes(JdbcTemplate jdbcTemplate, boolean postgres, long maxId) {
+        jdbcTemplate.execute("ALTER TABLE " + SHADOW_TABLE + " ADD CONSTRAINT address_shadow_pkey PRIMARY KEY (id)");
+        jdbcTemplate.execute("CREATE INDEX address_shadow_group_account ON " + SHADOW_TABLE
+                + " (aic_group_id, account_id, id)");
+        jdbcTemplate.execute("CREATE INDEX address_shadow_account ON " + SHADOW_TABLE + " (account_id)");
+        if (postgres) {
+            jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('" + SHADOW_TABLE + "', 'id'), ?)",
+                    Long.class, Math.max(maxId, 1));
+            jdbcTemplate.execute("ANALYZE " + SHADOW_TABLE);
+            // Durable before it replaces the real table; writes the table to WAL once, sequentially
+            jdbcTemplate.execute("ALTER TABLE " + SHADOW_TABLE + " SET LOGGED");
+        } else {
+            jdbcTemplate.execute("ALTER TABLE " + SHADOW_TABLE + " ALTER COLUMN id RESTART WITH " + (maxId + 1));
+        }
+    }
+
+    /**
+     * Carry over rows inserted during the build and swap the tables in one transaction
+     *
+     * @return the number of rows carried over
+     */
+    private int swap(boolean postgres, long maxId) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        Integer carriedOver = transactionTemplate.execute(status -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            boolean captureTrigger = false;
+            if (postgres) {
+                jdbcTemplate.execute("LOCK TABLE address IN ACCESS EXCLUSIVE MODE");
+                captureTrigger = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                        "SELECT EXISTS (SELECT 1 FROM pg_trigger WHERE tgname = 'address_change_capture' "
+                                + "AND tgrelid = 'address'::regclass)", Boolean.class));
+            }
+            int inserted = jdbcTemplate.update("INSERT INTO " + SHADOW_TABLE
+                    + " (id, org_id, aic_group_id, account_id, temp_id) "
+                    + "SELECT id, org_id, aic_group_id, account_id, temp_id FROM address WHERE id > ?", maxId);
+            if (postgres && inserted > 0) {
+                jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('" + SHADOW_TABLE + "', 'id'), "
+                        + "(SELECT MAX(id) FROM " + SHADOW_TABLE + "))", Long.class);
+            }
+
+            jdbcTemplate.execute("ALTER TABLE address RENAME TO address_old");
+            jdbcTemplate.execute("ALTER TABLE " + SHADOW_TABLE + " RENAME TO address");
+            jdbcTemplate.execute("DROP TABLE address_old");
+            jdbcTemplate.execute("ALTER TABLE address RENAME CONSTRAINT address_shadow_pkey TO address_pkey");
+            jdbcTemplate.execute("ALTER INDEX address_shadow_group_account RENAME TO idx_address_group_account");
+            jdbcTemplate.execute("ALTER INDEX address_shadow_account RENAME TO idx_address_account");
+            if (postgres) {
+                String sequence = jdbcTemplate.queryForObject(
+                        "SELECT pg_get_serial_sequence('address', 'id')", String.class);
+                if (sequence != null && !sequence.endsWith("address_id_seq")) {
+                    jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RENAME TO address_id_seq");
+                }
+                if (captureTrigger) {
+                    // The continuous mode's change capture trigger was dropped with the old table
+                    jdbcTemplate.execute("CREATE TRIGGER address_change_capture AFTER INSERT ON address "
+                            + "FOR EACH ROW EXECUTE FUNCTION address_change_capture()");
+                }
+            }
+            return inserted;
+        });
+        return carriedOver == null ? 0 : carriedOver;
+    }
+
+    private interface RowSink {
+        void add(long id, String orgID, String aicGroupID, String accountID, String tempID) throws SQLException;
+
+        void finish() throws SQLException;
+    }
+
+    /**
+     * COPY FROM STDIN in text format, streamed in 64 KiB writes
+     */
+    private static final class CopySink implements RowSink {
+
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE);
+
+        private CopySink(Connection connection) throws SQLException {
+            this.copyIn = PostgresJdbc.openCopyIn(connection, COPY_SQL);
+        }
+
+        @Override
+        public void add(long id, String orgID, String aicGroupID, String accountID, String tempID)
+                throws SQLException {
+            buffer.append(id).append('\t');
+            appendField(orgID).append('\t');
+            appendField(aicGroupID).append('\t');
+            appendField(accountID).append('\t');
+            appendField(tempID).append('\n');
+            if (buffer.length() >= COPY_BUFFER_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void finish() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+
+        private StringBuilder appendField(String value) {
+            if (value == null) {
+                return buffer.append("\\N");
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\' -> buffer.append("\\\\");
+                    case '\t' -> buffer.append("\\t");
+                    case '\n' -> buffer.append("\\n");
+                    case '\r' -> buffer.append("\\r");
+                    default -> buffer.append(c);
+                }
+            }
+            return buffer;
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    private static final class InsertSink implements RowSink {
+
+        private final PreparedStatement insert;
+        private int pending;
+
+        private InsertSink(Connection connection) throws SQLException {
+            this.insert = connection.prepareStatement(INSERT_SQL);
+        }
+
+        @Override
+        public void add(long id, String orgID, String aicGroupID, String accountID, String tempID)
+                throws SQLException {
+            insert.setLong(1, id);
+            insert.setString(2, orgID);
+            insert.setString(3, aicGroupID);
+            insert.setString(4, accountID);
+            insert.setString(5, tempID);
+            insert.addBatch();
+            if (++pending == INSERT_BATCH_SIZE) {
+                insert.executeBatch();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void finish() throws SQLException {
+            if (pending > 0) {
+                insert.executeBatch();
+            }
+            insert.close();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.accouting.throttle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Paces row writes to the primary with a token bucket whose rate follows AIMD: once per adjust
+ * interval the rate grows by a fixed step while every signal is within its target, and is
+ * multiplied by the decrease factor as soon as one is not. The signals are threads waiting for a
+ * pooled connection, the mean latency of the batch writes in the interval and, when enabled on
+ * PostgreSQL, the standby replay lag and the number of other active sessions. A target of 0
+ * disables the database signals.
+ */
+public class AdaptiveWriteGovernor {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveWriteGovernor.class);
+
+    private final TokenBucket bucket;
+    private final DatabaseLoadProbe probe;
+    private final double minRate;
+    private final double maxRate;
+    private final double increaseStep;
+    private final double decreaseFactor;
+    private final long adjustIntervalMillis;
+    private final int maxPendingConnections;
+    private final long targetBatchLatencyMillis;
+    private final long maxReplicationLagMillis;
+    private final int maxActiveSessions;
+
+    private final AtomicBoolean adjusting = new AtomicBoolean();
+    private final LongAdder windowBatches = new LongAdder();
+    private final LongAdder windowLatencyNanos = new LongAdder();
+    private final Counter backoffs;
+    private final Counter waitSeconds;
+
+    private volatile long lastAdjustMillis = System.currentTimeMillis();
+
+    public AdaptiveWriteGovernor(DatabaseLoadProbe probe, double minRate, double maxRate, double initialRate,
+                                 double increaseStep, double decreaseFactor, long adjustIntervalMillis,
+                                 int maxPendingConnections, long targetBatchLatencyMillis,
+                                 long maxReplicationLagMillis, int maxActiveSessions) {
+        if (minRate <= 0 || maxRate < minRate) {
+            throw new IllegalArgumentException("Rates must satisfy 0 < min <= max: " + minRate + ", " + maxRate);
+        }
+        if (decreaseFactor <= 0 || decreaseFactor >= 1) {
+            throw new IllegalArgumentException("decreaseFactor must be in (0, 1): " + decreaseFactor);
+        }
+        this.probe = probe;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increaseStep = increaseStep;
+        this.decreaseFactor = decreaseFactor;
+        this.adjustIntervalMillis = adjustIntervalMillis;
+        this.maxPendingConnections = maxPendingConnections;
+        this.targetBatchLatencyMillis = targetBatchLatencyMillis;
+        this.maxReplicationLagMillis = maxReplicationLagMillis;
+        this.maxActiveSessions = maxActiveSessions;
+        // One second of burst lets a chunk through right after an idle period
+        this.bucket = new TokenBucket(Math.max(minRate, Math.min(maxRate, initialRate)), 1.0);
+
+        Gauge.builder("accounting.write.governor.rate", bucket, TokenBucket::getRate)
+                .description("Current write rate allowed by the adaptive write governor, in rows per second")
+                .register(Metrics.globalRegistry);
+        this.backoffs = Counter.builder("accounting.write.governor.backoffs")
+                .description("Times the write governor cut the rate because a load signal exceeded its target")
+                .register(Metrics.globalRegistry);
+        this.waitSeconds = Counter.builder("accounting.write.governor.wait.seconds")
+                .description("Time writers spent waiting for the write governor")
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * Wait until the given number of rows may be written
+     */
+    public void acquire(int rows) throws InterruptedException {
+        long waited = bucket.acquire(rows);
+        if (waited > 0) {
+            waitSeconds.increment(waited / 1_000_000_000.0);
+        }
+    }
+
+    /**
+     * Record a finished batch write, and adjust the rate once per interval
+     */
+    public void recordWrite(long latencyNanos) {
+        windowBatches.increment();
+        windowLatencyNanos.add(latencyNanos);
+        long now = System.currentTimeMillis();
+        if (now - lastAdjustMillis >= adjustIntervalMillis && adjusting.compareAndSet(false, true)) {
+            try {
+                lastAdjustMillis = now;
+                adjust();
+            } finally {
+                adjusting.set(false);
+            }
+        }
+    }
+
+    public double getRate() {
+        return bucket.getRate();
+    }
+
+    void adjust() {
+        long batches = windowBatches.sumThenReset();
+        long latencyNanos = windowLatencyNanos.sumThenReset();
+        long meanLatencyMillis = batches == 0 ? 0 : latencyNanos / batches / 1_000_000;
+
+        String congestion = null;
+        int pending = probe.pendingConnections();
+        if (pending > maxPendingConnections) {
+            congestion = pending + " threads waiting for a connection";
+        } else if (meanLatencyMillis > targetBatchLatencyMillis) {
+            congestion = "mean batch write latency " + meanLatencyMillis + " ms";
+        } else if (maxReplicationLagMillis > 0 && probe.replicationLagMillis() > maxReplicationLagMillis) {
+            congestion = "replication lag above " + maxReplicationLagMillis + " ms";
+        } else if (maxActiveSessions > 0 && probe.activeSessions() > maxActiveSessions) {
+            congestion = "more than " + maxActiveSessions + " active sessions";
+        }
+
+        double rate = bucket.getRate();
+        if (congestion != null) {
+            double reduced = Math.max(minRate, rate * decreaseFactor);
+            bucket.setRate(reduced);
+            backoffs.increment();
+            log.info("Write governor backing off to {} rows/s: {}", Math.round(reduced), congestion);
+        } else if (batches > 0 && rate < maxRate) {
+            // Only raise the rate while writes happen, so an idle interval does not ramp it up
+            bucket.setRate(Math.min(maxRate, rate + increaseStep));
+            log.debug("Write governor raised rate to {} rows/s", Math.round(bucket.getRate()));
+        }
+    }
+}
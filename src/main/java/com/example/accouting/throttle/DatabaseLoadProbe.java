@@ -0,0 +1,69 @@
+package com.example.accouting.throttle;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.support.DatabaseType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Load signals of the primary database: threads waiting for a pooled connection, and on
+ * PostgreSQL the replication lag of its standbys and the number of active client sessions.
+ * Database signals are 0 where they are not available or could not be read.
+ */
+public class DatabaseLoadProbe {
+
+    private static final Logger log = LoggerFactory.getLogger(DatabaseLoadProbe.class);
+
+    private static final String REPLICATION_LAG_SQL =
+            "SELECT COALESCE(MAX(EXTRACT(EPOCH FROM replay_lag) * 1000), 0) FROM pg_stat_replication";
+
+    // Other sessions doing work right now; the job's own idle connections are not counted
+    private static final String ACTIVE_SESSIONS_SQL =
+            "SELECT COUNT(*) FROM pg_stat_activity WHERE state = 'active' AND backend_type = 'client backend' "
+                    + "AND pid <> pg_backend_pid()";
+
+    private final HikariDataSource pool;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param queryDatabase whether to read the PostgreSQL statistics views
+     */
+    public DatabaseLoadProbe(DataSource dataSource, boolean queryDatabase) throws Exception {
+        this.pool = dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        this.jdbcTemplate = queryDatabase && DatabaseType.fromMetaData(dataSource) == DatabaseType.POSTGRES
+                ? new JdbcTemplate(dataSource)
+                : null;
+    }
+
+    public int pendingConnections() {
+        HikariPoolMXBean poolBean = pool == null ? null : pool.getHikariPoolMXBean();
+        // The pool bean is only there once the pool has started
+        return poolBean == null ? 0 : poolBean.getThreadsAwaitingConnection();
+    }
+
+    public long replicationLagMillis() {
+        Number lag = query(REPLICATION_LAG_SQL);
+        return lag == null ? 0 : lag.longValue();
+    }
+
+    public int activeSessions() {
+        Number sessions = query(ACTIVE_SESSIONS_SQL);
+        return sessions == null ? 0 : sessions.intValue();
+    }
+
+    private Number query(String sql) {
+        if (jdbcTemplate == null) {
+            return null;
+        }
+        try {
+            return jdbcTemplate.queryForObject(sql, Number.class);
+        } catch (Exception e) {
+            log.debug("Could not read database load signal", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.accouting.throttle;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Decorator that asks the write governor for permission before each chunk write and reports the
+ * write latency back. The wait happens before the delegate borrows a connection from the pool.
+ */
+public class ThrottledItemWriter<T> implements ItemWriter<T> {
+
+    private final ItemWriter<T> delegate;
+    private final AdaptiveWriteGovernor governor;
+    private final ToIntFunction<T> rowCount;
+
+    public ThrottledItemWriter(ItemWriter<T> delegate, AdaptiveWriteGovernor governor) {
+        this(delegate, governor, item -> 1);
+    }
+
+    /**
+     * @param rowCount number of rows an item writes, for items that hold several rows
+     */
+    public ThrottledItemWriter(ItemWriter<T> delegate, AdaptiveWriteGovernor governor, ToIntFunction<T> rowCount) {
+        this.delegate = delegate;
+        this.governor = governor;
+        this.rowCount = rowCount;
+    }
+
+    @Override
+    public void write(Chunk<? extends T> chunk) throws Exception {
+        int rows = 0;
+        for (T item : chunk) {
+            rows += rowCount.applyAsInt(item);
+        }
+        governor.acquire(rows);
+        long start = System.nanoTime();
+        delegate.write(chunk);
+        governor.recordWrite(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.accouting.throttle;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket that paces callers to a rate that can change at runtime. A caller may take more
+ * tokens than the bucket holds, e.g. a whole chunk of rows; the bucket goes into debt and the
+ * caller sleeps until the debt is paid, so the long-run rate still holds.
+ */
+public class TokenBucket {
+
+    private final double burstSeconds;
+
+    private double ratePerSecond;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * @param burstSeconds how many seconds' worth of tokens can accumulate while idle
+     */
+    public TokenBucket(double ratePerSecond, double burstSeconds) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("ratePerSecond must be positive: " + ratePerSecond);
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.burstSeconds = burstSeconds;
+        this.tokens = ratePerSecond * burstSeconds;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Take the given number of tokens, waiting as long as the current rate requires
+     *
+     * @return nanoseconds spent waiting
+     */
+    public long acquire(int permits) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            tokens -= permits;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens / ratePerSecond * 1_000_000_000L);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return waitNanos;
+    }
+
+    public synchronized void setRate(double ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("ratePerSecond must be positive: " + ratePerSecond);
+        }
+        // Tokens accrued so far count at the old rate
+        refill();
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public synchronized double getRate() {
+        return ratePerSecond;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double accrued = (now - lastRefillNanos) * ratePerSecond / 1_000_000_000L;
+        tokens = Math.min(ratePerSecond * burstSeconds, tokens + accrued);
+        lastRefillNanos = now;
+    }
+}
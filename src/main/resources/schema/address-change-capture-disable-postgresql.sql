@@ -0,0 +1,12 @@
+-- Disables the change capture of the continuous processing mode so address inserts (including COPY
+-- loads) no longer feed the outbox. The address_change table and its pending rows are kept; the
+-- trigger is enabled again when continuous processing starts, and rows inserted meanwhile are
+-- picked up by the catch-up sweep for rows without a tempID.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_trigger
+               WHERE tgname = 'address_change_capture' AND tgrelid = 'address'::regclass) THEN
+        ALTER TABLE address DISABLE TRIGGER address_change_capture;
+    END IF;
+END
+$$;
@@ -0,0 +1,33 @@
+-- Outbox table fed by a trigger on address inserts, consumed by the continuous processing mode.
+-- Safe to run on every start: existing objects are kept, so pending changes are not lost, and a
+-- trigger disabled by batch.streaming.capture.disable is enabled again.
+CREATE TABLE IF NOT EXISTS address_change (
+    change_id  BIGSERIAL PRIMARY KEY,
+    address_id BIGINT    NOT NULL,
+    changed_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+CREATE OR REPLACE FUNCTION address_change_capture() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO address_change (address_id) VALUES (NEW.id);
+    -- Identical notifications within one transaction are collapsed into one
+    PERFORM pg_notify('address_change', '');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_trigger
+                   WHERE tgname = 'address_change_capture' AND tgrelid = 'address'::regclass) THEN
+        CREATE TRIGGER address_change_capture
+            AFTER INSERT ON address
+            FOR EACH ROW EXECUTE FUNCTION address_change_capture();
+    ELSE
+        ALTER TABLE address ENABLE TRIGGER address_change_capture;
+    END IF;
+END
+$$;
+
+-- Changes for rows that no longer exist are never claimed by the join, drop them
+DELETE FROM address_change c WHERE NOT EXISTS (SELECT 1 FROM address a WHERE a.id = c.address_id);
@@ -0,0 +1,29 @@
+-- Renames address columns created under Hibernate's default naming (orgid, aicgroupid, accountid,
+-- tempid) to the snake_case names the entity maps explicitly. Where a startup already added the
+-- snake_case column next to the old one, old values fill the gaps before the old column is dropped.
+DO $$
+DECLARE
+    renames CONSTANT text[][] := ARRAY[
+        ['orgid', 'org_id'],
+        ['aicgroupid', 'aic_group_id'],
+        ['accountid', 'account_id'],
+        ['tempid', 'temp_id']];
+    old_exists boolean;
+    new_exists boolean;
+BEGIN
+    FOR i IN 1 .. array_length(renames, 1) LOOP
+        SELECT EXISTS (SELECT 1 FROM information_schema.columns
+                       WHERE table_schema = current_schema() AND table_name = 'address'
+                         AND column_name = renames[i][1]) INTO old_exists;
+        SELECT EXISTS (SELECT 1 FROM information_schema.columns
+                       WHERE table_schema = current_schema() AND table_name = 'address'
+                         AND column_name = renames[i][2]) INTO new_exists;
+        IF old_exists AND NOT new_exists THEN
+            EXECUTE format('ALTER TABLE address RENAME COLUMN %I TO %I', renames[i][1], renames[i][2]);
+        ELSIF old_exists AND new_exists THEN
+            EXECUTE format('UPDATE address SET %2$I = %1$I WHERE %2$I IS NULL', renames[i][1], renames[i][2]);
+            EXECUTE format('ALTER TABLE address DROP COLUMN %I', renames[i][1]);
+        END IF;
+    END LOOP;
+END
+$$;
@@ -0,0 +1,7 @@
+-- Indexes on the foreign keys of the Spring Batch metadata tables (BATCH_ prefix), which the
+-- default schema does not create. They keep JobRepository lookups and the retention deletes
+-- from scanning whole tables.
+CREATE INDEX IF NOT EXISTS BATCH_JOB_EXECUTION_INSTANCE_IDX ON BATCH_JOB_EXECUTION (JOB_INSTANCE_ID);
+CREATE INDEX IF NOT EXISTS BATCH_JOB_EXECUTION_CREATE_TIME_IDX ON BATCH_JOB_EXECUTION (CREATE_TIME, STATUS);
+CREATE INDEX IF NOT EXISTS BATCH_JOB_EXECUTION_PARAMS_EXECUTION_IDX ON BATCH_JOB_EXECUTION_PARAMS (JOB_EXECUTION_ID);
+CREATE INDEX IF NOT EXISTS BATCH_STEP_EXECUTION_EXECUTION_IDX ON BATCH_STEP_EXECUTION (JOB_EXECUTION_ID, STEP_NAME);
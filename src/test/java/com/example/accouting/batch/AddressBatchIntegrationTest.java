@@ -74,6 +74,7 @@ public class AddressBatchIntegrationTest {
             accountIds.add(address.getAccountID());
         }
         when(addressRepository.findAllDistinctAccountIDs()).thenReturn(accountIds);
+        when(addressRepository.streamAllDistinctAccountIDs()).thenAnswer(invocation -> accountIds.stream());
 
         // Mock the updateTempIDForAccountIDs method
         doNothing().when(addressRepository).updateTempIDForAccountIDs(anyString(), anySet());
@@ -0,0 +1,67 @@
+package com.example.accouting.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void testNoFalseNegatives() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.put("AC" + i);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(filter.mightContain("AC" + i), "Added key AC" + i + " must be reported as present");
+        }
+    }
+
+    @Test
+    void testFalsePositiveRateStaysNearTarget() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("AC" + i);
+        }
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("missing-" + i)) {
+                falsePositives++;
+            }
+        }
+        double observed = (double) falsePositives / probes;
+        System.out.println("[DEBUG_LOG] Observed fpp: " + observed + ", expected: " + filter.expectedFalsePositiveRate());
+        assertTrue(observed < 0.02, "Observed false positive rate too high: " + observed);
+    }
+
+    @Test
+    void testGrowsBeyondExpectedInsertions() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.put("AC" + i);
+        }
+        assertTrue(filter.stageCount() > 1, "Filter should add stages when over capacity");
+        assertTrue(filter.expectedFalsePositiveRate() < 0.01, "Compound rate should stay below target");
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(filter.mightContain("AC" + i));
+        }
+    }
+
+    @Test
+    void testDuplicatePutIsNotCounted() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+        assertTrue(filter.put("AC101"));
+        assertFalse(filter.put("AC101"));
+        assertEquals(1, filter.approximateElementCount());
+    }
+
+    @Test
+    void testRejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(100, 1.0));
+    }
+}
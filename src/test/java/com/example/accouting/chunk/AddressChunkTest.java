@@ -0,0 +1,70 @@
+package com.example.accouting.chunk;
+
+import com.example.accouting.model.Address;
+import com.example.accouting.summary.ClusterStatistics;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AddressChunkTest {
+
+    @Test
+    void testColumnsRoundTripThroughDictionaries() {
+        AddressChunk chunk = new AddressChunk(4);
+        chunk.add(1, "org1", "A", "AC101", null);
+        chunk.add(2, "org1", "A", "AC102", null);
+        chunk.add(3, "org2", "B", "AC101", null);
+
+        assertEquals(3, chunk.size());
+        assertEquals(2, chunk.distinctAccounts());
+        assertEquals(new Address(3L, "org2", "B", "AC101", null), chunk.toAddress(2));
+        assertNull(chunk.getTempID(0));
+        assertEquals(StringDictionary.NULL_CODE, chunk.getTempIdCode(0));
+
+        for (int row = 0; row < chunk.size(); row++) {
+            chunk.setTempID(row, "T00000000000000");
+        }
+        assertEquals(1, chunk.getTempIds().size());
+        assertEquals("T00000000000000", chunk.getTempID(1));
+        System.out.println("[DEBUG_LOG] " + chunk + ", ~" + chunk.estimatedBytes() + " bytes");
+    }
+
+    @Test
+    void testFullChunkRejectsRows() {
+        AddressChunk chunk = new AddressChunk(1);
+        chunk.add(1, "org1", "A", "AC101", null);
+
+        assertThrows(IllegalStateException.class, () -> chunk.add(2, "org1", "A", "AC102", null));
+        assertThrows(IndexOutOfBoundsException.class, () -> chunk.getId(1));
+    }
+
+    @Test
+    void testInternerReturnsCanonicalInstanceUpToLimit() {
+        StringInterner interner = new StringInterner(1);
+        String first = interner.intern(new String("org1"));
+
+        assertSame(first, interner.intern(new String("org1")));
+        String overflow = new String("org2");
+        assertSame(overflow, interner.intern(overflow));
+        assertEquals(1, interner.size());
+    }
+
+    @Test
+    void testClusterStatisticsCountsColumnarChunks() {
+        AddressChunk chunk = new AddressChunk(3);
+        chunk.add(1, "org1", "A", "AC101", "T00000000000000");
+        chunk.add(2, "org1", "A", "AC102", "T00000000000000");
+        chunk.add(3, "org2", "B", "AC103", "T00000000000001");
+        ClusterStatistics statistics = new ClusterStatistics(2);
+
+        statistics.recordColumns(chunk);
+
+        assertEquals(3, statistics.getRowsWritten());
+        assertEquals(2, statistics.getClusterCount());
+        assertEquals(2L, statistics.largestClusters(1).get("T00000000000000"));
+        assertEquals(2, statistics.getSample().size());
+    }
+}
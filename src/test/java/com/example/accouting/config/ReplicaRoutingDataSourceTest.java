@@ -0,0 +1,86 @@
+package com.example.accouting.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routes reads between two local H2 instances standing in for a primary and its replica
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).setName("routingprimary").build();
+        replica = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).setName("routingreplica").build();
+        new JdbcTemplate(primary).execute("CREATE TABLE origin (name VARCHAR(16))");
+        new JdbcTemplate(primary).update("INSERT INTO origin VALUES ('primary')");
+        new JdbcTemplate(replica).execute("CREATE TABLE origin (name VARCHAR(16))");
+        new JdbcTemplate(replica).update("INSERT INTO origin VALUES ('replica')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void testReadsGoToReplicaWithinLagLimit() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replica, 5000, 0, "SELECT 100");
+
+        assertEquals("replica", readOrigin(monitor));
+        assertTrue(monitor.isReplicaUsable());
+    }
+
+    @Test
+    void testReadsFallBackToPrimaryWhenReplicaLags() {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replica, 5000, 0, "SELECT 60000");
+
+        assertEquals("primary", readOrigin(monitor));
+        assertFalse(monitor.isReplicaUsable());
+    }
+
+    @Test
+    void testPinnedRouteHoldsWhenLagChanges() {
+        new JdbcTemplate(replica).execute("CREATE TABLE lag (millis BIGINT)");
+        new JdbcTemplate(replica).update("INSERT INTO lag VALUES (100)");
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(primary, replica, 5000, 0, "SELECT millis FROM lag");
+        ReplicaRoutingDataSource routing = routing(monitor);
+
+        routing.pin();
+        assertEquals("replica", readOrigin(routing));
+        new JdbcTemplate(replica).update("UPDATE lag SET millis = 60000");
+        assertEquals("replica", readOrigin(routing), "A pinned scan should stay on the replica");
+
+        routing.release();
+        assertEquals("primary", readOrigin(routing), "Unpinned reads should follow the lag check again");
+    }
+
+    private String readOrigin(ReplicaLagMonitor monitor) {
+        return readOrigin(routing(monitor));
+    }
+
+    private ReplicaRoutingDataSource routing(ReplicaLagMonitor monitor) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, monitor);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    private String readOrigin(ReplicaRoutingDataSource routing) {
+        String origin = new JdbcTemplate(routing).queryForObject("SELECT name FROM origin", String.class);
+        System.out.println("[DEBUG_LOG] Read routed to " + origin);
+        return origin;
+    }
+}
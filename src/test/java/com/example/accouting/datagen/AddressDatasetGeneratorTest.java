@@ -0,0 +1,93 @@
+package com.example.accouting.datagen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AddressDatasetGeneratorTest {
+
+    @Test
+    void testSameSeedProducesSameRows() throws Exception {
+        DatasetSpec spec = smallSpec();
+        assertEquals(generateAll(spec), generateAll(spec));
+    }
+
+    @Test
+    void testBlocksCanBeGeneratedInAnyOrder() throws Exception {
+        DatasetSpec spec = smallSpec();
+        AddressDatasetGenerator generator = new AddressDatasetGenerator(spec);
+
+        List<String> forward = new ArrayList<>();
+        for (int block = 0; block < spec.blockCount(); block++) {
+            forward.addAll(generateBlock(generator, block));
+        }
+        List<String> reversed = new ArrayList<>();
+        for (int block = spec.blockCount() - 1; block >= 0; block--) {
+            reversed.addAll(0, generateBlock(generator, block));
+        }
+        assertEquals(forward, reversed);
+    }
+
+    @Test
+    void testRowCountAndCardinalityLimits() throws Exception {
+        DatasetSpec spec = smallSpec();
+        List<String> rows = generateAll(spec);
+        assertEquals(spec.getRows(), rows.size());
+
+        Set<String> orgs = new HashSet<>();
+        for (String row : rows) {
+            orgs.add(row.split(",")[0]);
+        }
+        assertTrue(orgs.size() <= spec.getOrgCount(), "Too many distinct orgs: " + orgs.size());
+    }
+
+    @Test
+    void testZipfSkewFavoursLowRanks() {
+        ZipfSampler sampler = new ZipfSampler(1_000, 1.2);
+        SplittableRandom random = new SplittableRandom(1);
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            int rank = sampler.sample(random);
+            assertTrue(rank >= 1 && rank <= 1_000, "Rank out of range: " + rank);
+            counts.merge(rank, 1, Integer::sum);
+        }
+        assertTrue(counts.get(1) > counts.getOrDefault(100, 0) * 10, "Rank 1 should dominate rank 100");
+    }
+
+    private DatasetSpec smallSpec() {
+        DatasetSpec spec = new DatasetSpec();
+        spec.setRows(2_500);
+        spec.setBlockSize(1_000);
+        spec.setOrgCount(10);
+        spec.setAicGroupCount(50);
+        spec.setAccountCount(500);
+        spec.setClusterSizeDistribution(ClusterSizeDistribution.POWER_LAW);
+        spec.setSeed(7);
+        return spec;
+    }
+
+    private List<String> generateAll(DatasetSpec spec) throws Exception {
+        AddressDatasetGenerator generator = new AddressDatasetGenerator(spec);
+        List<String> rows = new ArrayList<>();
+        for (int block = 0; block < spec.blockCount(); block++) {
+            rows.addAll(generateBlock(generator, block));
+        }
+        return rows;
+    }
+
+    private List<String> generateBlock(AddressDatasetGenerator generator, int block) throws Exception {
+        List<String> rows = new ArrayList<>();
+        generator.generateBlock(block, (orgID, aicGroupID, accountID) ->
+                rows.add(orgID + "," + aicGroupID + "," + accountID));
+        return rows;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.accouting.export;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TempIdColumnarWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTripAcrossBlocks() throws IOException {
+        Path file = tempDir.resolve("export.tidc");
+        List<String> expected = new ArrayList<>();
+        try (TempIdColumnarWriter writer = new TempIdColumnarWriter(file, 1_000)) {
+            for (int i = 0; i < 2_500; i++) {
+                long id = i * 3L + 1;
+                String org = "org" + (i % 10);
+                String group = i % 7 == 0 ? null : "G" + (i % 50);
+                String account = "AC" + i;
+                String tempId = "T0000000000000" + (i % 3);
+                writer.write(id, org, group, account, tempId);
+                expected.add(id + "," + org + "," + group + "," + account + "," + tempId);
+            }
+        }
+
+        List<String> actual = new ArrayList<>();
+        try (TempIdColumnarReader reader = new TempIdColumnarReader(file)) {
+            assertEquals(Arrays.asList("id", "orgID", "aicGroupID", "accountID", "tempID"), reader.getColumnNames());
+            long rows = reader.forEach((id, orgID, aicGroupID, accountID, tempID) ->
+                    actual.add(id + "," + orgID + "," + aicGroupID + "," + accountID + "," + tempID));
+            assertEquals(2_500, rows);
+        }
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testLowCardinalityColumnsCompressWell() throws IOException {
+        Path file = tempDir.resolve("export.tidc");
+        long csvBytes = 0;
+        try (TempIdColumnarWriter writer = new TempIdColumnarWriter(file)) {
+            for (int i = 0; i < 100_000; i++) {
+                String org = "org" + (i % 10);
+                String group = "G" + (i % 10);
+                String account = "AC" + (i % 20_000);
+                writer.write(i + 1, org, group, account, "T00000000000000");
+                csvBytes += String.join(",", String.valueOf(i + 1), org, group, account, "T00000000000000").length() + 1;
+            }
+        }
+        long exportBytes = Files.size(file);
+        System.out.println("[DEBUG_LOG] Columnar export: " + exportBytes + " bytes, CSV: " + csvBytes + " bytes");
+        assertTrue(exportBytes * 5 < csvBytes, "Export should be a fraction of the CSV size");
+    }
+
+    @Test
+    void testEmptyExport() throws IOException {
+        Path file = tempDir.resolve("empty.tidc");
+        new TempIdColumnarWriter(file).close();
+        try (TempIdColumnarReader reader = new TempIdColumnarReader(file)) {
+            assertEquals(0, reader.forEach((id, orgID, aicGroupID, accountID, tempID) -> {
+            }));
+        }
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path file = tempDir.resolve("not-an-export.csv");
+        Files.writeString(file, "id,orgID,aicGroupID,accountID,tempID\n");
+        assertThrows(IOException.class, () -> new TempIdColumnarReader(file));
+    }
+
+    @Test
+    void testRejectsFileTruncatedInsideBlock() throws IOException {
+        Path file = writeExport(tempDir.resolve("export.tidc"));
+        byte[] bytes = Files.readAllBytes(file);
+        int payloadStart = firstBlockOffset(file) + 12;
+        Files.write(file, Arrays.copyOf(bytes, payloadStart + 10));
+
+        assertThrows(IOException.class, () -> readAll(file));
+    }
+
+    @Test
+    void testRejectsBlockWithTruncatedCompressedData() throws IOException {
+        Path file = writeExport(tempDir.resolve("export.tidc"));
+        byte[] bytes = Files.readAllBytes(file);
+        int blockStart = firstBlockOffset(file);
+        int compressedLength = ByteBuffer.wrap(bytes, blockStart + 8, 4).getInt();
+
+        // The block header agrees with the shortened payload, so only the inflater notices
+        int kept = compressedLength / 2;
+        ByteBuffer truncated = ByteBuffer.allocate(bytes.length - (compressedLength - kept));
+        truncated.put(bytes, 0, blockStart + 8);
+        truncated.putInt(kept);
+        truncated.put(bytes, blockStart + 12, kept);
+        truncated.put(bytes, blockStart + 12 + compressedLength, bytes.length - (blockStart + 12 + compressedLength));
+        Files.write(file, truncated.array());
+
+        IOException e = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(IOException.class, () -> readAll(file)));
+        System.out.println("[DEBUG_LOG] Truncated block: " + e.getMessage());
+    }
+
+    private Path writeExport(Path file) throws IOException {
+        try (TempIdColumnarWriter writer = new TempIdColumnarWriter(file, 1_000)) {
+            for (int i = 0; i < 2_500; i++) {
+                writer.write(i + 1, "org" + (i % 10), "G" + (i % 50), "AC" + i, "T00000000000000");
+            }
+        }
+        return file;
+    }
+
+    private int firstBlockOffset(Path file) throws IOException {
+        int offset = 12;
+        try (TempIdColumnarReader reader = new TempIdColumnarReader(file)) {
+            for (String name : reader.getColumnNames()) {
+                offset += 2 + name.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        return offset;
+    }
+
+    private long readAll(Path file) throws IOException {
+        try (TempIdColumnarReader reader = new TempIdColumnarReader(file)) {
+            return reader.forEach((id, orgID, aicGroupID, accountID, tempID) -> {
+            });
+        }
+    }
+}
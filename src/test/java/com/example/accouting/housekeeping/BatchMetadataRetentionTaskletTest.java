@@ -0,0 +1,108 @@
+package com.example.accouting.housekeeping;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Purges metadata created through a real JobRepository on an embedded H2 batch schema
+ */
+class BatchMetadataRetentionTaskletTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private JobRepository jobRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("metadataretention")
+                .addScript("classpath:org/springframework/batch/core/schema-h2.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        JobRepositoryFactoryBean factory = new JobRepositoryFactoryBean();
+        factory.setDataSource(database);
+        factory.setTransactionManager(new DataSourceTransactionManager(database));
+        factory.afterPropertiesSet();
+        jobRepository = factory.getObject();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testPurgesOnlyOldExecutionsWithEligibleStatus() throws Exception {
+        long oldCompleted = createExecution(1, BatchStatus.COMPLETED, 40);
+        long oldFailed = createExecution(2, BatchStatus.FAILED, 40);
+        long oldStarted = createExecution(3, BatchStatus.STARTED, 40);
+        long recentCompleted = createExecution(4, BatchStatus.COMPLETED, 1);
+
+        // A batch size of 1 exercises the CONTINUABLE loop
+        BatchMetadataRetentionTasklet tasklet = new BatchMetadataRetentionTasklet(database, "BATCH_",
+                Duration.ofDays(30), List.of(BatchStatus.COMPLETED, BatchStatus.FAILED), 1, true);
+        int calls = runToCompletion(tasklet);
+        System.out.println("[DEBUG_LOG] Retention finished after " + calls + " calls");
+
+        List<Long> remaining = jdbcTemplate.queryForList(
+                "SELECT JOB_EXECUTION_ID FROM BATCH_JOB_EXECUTION ORDER BY JOB_EXECUTION_ID", Long.class);
+        assertEquals(List.of(oldStarted, recentCompleted), remaining);
+        assertEquals(2, count("BATCH_JOB_INSTANCE"), "Instances of purged executions should be removed");
+        assertEquals(2, count("BATCH_STEP_EXECUTION"));
+        assertEquals(2, count("BATCH_STEP_EXECUTION_CONTEXT"));
+        assertEquals(2, count("BATCH_JOB_EXECUTION_CONTEXT"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM BATCH_JOB_EXECUTION_PARAMS "
+                + "WHERE JOB_EXECUTION_ID IN (?, ?)", Integer.class, oldCompleted, oldFailed));
+        // Two executions, then one orphan instance per call, then the final call
+        assertEquals(5, calls);
+    }
+
+    private long createExecution(long run, BatchStatus status, int ageDays) throws Exception {
+        JobExecution jobExecution = jobRepository.createJobExecution("addressJob",
+                new JobParametersBuilder().addLong("time", run).toJobParameters());
+        StepExecution stepExecution = jobExecution.createStepExecution("processAddressStep");
+        jobRepository.add(stepExecution);
+        jobRepository.updateExecutionContext(stepExecution);
+        jobExecution.setStatus(status);
+        jobRepository.update(jobExecution);
+        jdbcTemplate.update("UPDATE BATCH_JOB_EXECUTION SET CREATE_TIME = ? WHERE JOB_EXECUTION_ID = ?",
+                LocalDateTime.now().minusDays(ageDays), jobExecution.getId());
+        return jobExecution.getId();
+    }
+
+    private int runToCompletion(BatchMetadataRetentionTasklet tasklet) {
+        int calls = 0;
+        RepeatStatus status;
+        do {
+            status = tasklet.execute(mock(StepContribution.class), null);
+            calls++;
+        } while (status.isContinuable() && calls < 100);
+        return calls;
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.accouting.jfr;
+
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrRecordingSummaryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSummarizesPhasesPerJob() throws Exception {
+        Path file = tempDir.resolve("run.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PageFetchEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(WriteBatchEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+
+            for (int i = 0; i < 3; i++) {
+                PageFetchEvent page = new PageFetchEvent();
+                page.begin();
+                Thread.sleep(2);
+                page.end();
+                page.jobExecutionId = 1;
+                page.rows = 100;
+                page.bytes = 4096;
+                page.commit();
+            }
+            WriteBatchEvent write = new WriteBatchEvent();
+            write.begin();
+            write.end();
+            write.jobExecutionId = 2;
+            write.rows = 50;
+            write.commit();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, JfrRecordingSummary.PhaseStatistics> all = JfrRecordingSummary.summarize(file, null);
+        assertEquals(3, all.get("PageFetch").getCount());
+        assertEquals(300, all.get("PageFetch").getRows());
+        assertEquals(3 * 4096, all.get("PageFetch").getBytes());
+        assertEquals(1, all.get("WriteBatch").getCount());
+        assertTrue(all.get("PageFetch").percentileMillis(50) >= 2);
+
+        Map<String, JfrRecordingSummary.PhaseStatistics> firstJob = JfrRecordingSummary.summarize(file, 1L);
+        assertEquals(3, firstJob.get("PageFetch").getCount());
+        assertFalse(firstJob.containsKey("WriteBatch"));
+        System.out.println("[DEBUG_LOG] " + firstJob.get("PageFetch").format("PageFetch"));
+    }
+
+    @Test
+    void testBucketBoundaries() {
+        assertEquals(0, JfrRecordingSummary.PhaseStatistics.bucketOf(999_999));
+        assertEquals(1, JfrRecordingSummary.PhaseStatistics.bucketOf(1_000_000));
+        assertEquals(2, JfrRecordingSummary.PhaseStatistics.bucketOf(3_000_000));
+        assertEquals(3, JfrRecordingSummary.PhaseStatistics.bucketOf(4_000_000));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.accouting.lookup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TempIdSnapshotTest {
+
+    private TempIdSnapshot snapshot() {
+        return new TempIdSnapshot.Builder(4)
+                .add("org1", "AC101", "T00000000000000")
+                .add("org2", "AC102", "T00000000000000")
+                .add("org5", "AC101", "T00000000000000")
+                .add("org5", "AC103", "T00000000000001")
+                .add("org6", "AC104", null)
+                .build();
+    }
+
+    @Test
+    void testSingleLookups() {
+        TempIdSnapshot snapshot = snapshot();
+        assertEquals("T00000000000000", snapshot.tempIdForAccount("AC101"));
+        assertEquals("T00000000000001", snapshot.tempIdForAccount("AC103"));
+        assertNull(snapshot.tempIdForAccount("AC104"), "Rows without a tempID are not indexed");
+        assertEquals(Arrays.asList("T00000000000000", "T00000000000001"), snapshot.tempIdsForOrg("org5"));
+        assertTrue(snapshot.tempIdsForOrg("missing").isEmpty());
+    }
+
+    @Test
+    void testBatchLookupSkipsUnknownKeys() {
+        TempIdSnapshot snapshot = snapshot();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            keys.add("AC" + (100 + i));
+        }
+        Map<String, String> result = snapshot.tempIdsForAccounts(keys);
+        assertEquals(3, result.size());
+        assertEquals("T00000000000001", result.get("AC103"));
+
+        Map<String, List<String>> orgs = snapshot.tempIdsForOrgs(Arrays.asList("org1", "org5", "missing"));
+        assertEquals(2, orgs.size());
+    }
+
+    @Test
+    void testTempIdStringsAreShared() {
+        TempIdSnapshot snapshot = new TempIdSnapshot.Builder(2)
+                .add("org1", "AC101", new String("T00000000000000"))
+                .add("org2", "AC102", new String("T00000000000000"))
+                .build();
+        assertSame(snapshot.tempIdForAccount("AC101"), snapshot.tempIdForAccount("AC102"));
+    }
+}
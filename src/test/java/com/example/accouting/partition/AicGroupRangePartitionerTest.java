@@ -0,0 +1,136 @@
+package com.example.accouting.partition;
+
+import com.example.accouting.model.Address;
+import com.example.accouting.repository.AddressRowMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.database.JdbcPagingItemReader;
+import org.springframework.batch.item.database.Order;
+import org.springframework.batch.item.database.support.SqlPagingQueryProviderFactoryBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reads every partition of the grouped mode the way groupedReader does, with a small page size
+ * so that paging crosses group and range boundaries
+ */
+class AicGroupRangePartitionerTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).setName("grouped").build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE address (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "org_id VARCHAR(255), aic_group_id VARCHAR(255), account_id VARCHAR(255), temp_id VARCHAR(255))");
+        jdbcTemplate.execute("CREATE INDEX idx_address_group_account ON address (aic_group_id, account_id, id)");
+        jdbcTemplate.update("INSERT INTO address (org_id, aic_group_id, account_id) "
+                + "SELECT 'ORG' || (X % 7), 'AIC' || (X % 13), 'ACC' || (X % 41) FROM SYSTEM_RANGE(1, 500)");
+        jdbcTemplate.update("INSERT INTO address (org_id, aic_group_id, account_id) "
+                + "SELECT 'ORG' || (X % 7), NULL, 'ACC' || X FROM SYSTEM_RANGE(1, 20)");
+        jdbcTemplate.update("INSERT INTO address (org_id, aic_group_id, account_id) "
+                + "SELECT 'ORG' || (X % 7), 'AIC' || (X % 13), NULL FROM SYSTEM_RANGE(1, 10)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testEveryRowReadOnceIncludingNullGroups() throws Exception {
+        Map<String, ExecutionContext> partitions = new AicGroupRangePartitioner(database).partition(4);
+        System.out.println("[DEBUG_LOG] Partitions: " + partitions);
+
+        assertEquals(5, partitions.size(), "Four group ranges plus the partition for NULL keys");
+        List<Long> ids = new ArrayList<>();
+        Map<String, String> groupOwners = new HashMap<>();
+        for (Map.Entry<String, ExecutionContext> partition : partitions.entrySet()) {
+            for (Address address : readPartition(partition.getValue())) {
+                ids.add(address.getId());
+                if (address.getAicGroupID() != null && address.getAccountID() != null) {
+                    String owner = groupOwners.putIfAbsent(address.getAicGroupID(), partition.getKey());
+                    assertTrue(owner == null || owner.equals(partition.getKey()),
+                            "Group " + address.getAicGroupID() + " is split across partitions");
+                }
+            }
+        }
+
+        Set<Long> distinctIds = new HashSet<>(ids);
+        assertEquals(ids.size(), distinctIds.size(), "No row should be read twice");
+        assertEquals(530, distinctIds.size(), "Every row should be read, including NULL groups and accounts");
+    }
+
+    @Test
+    void testSinglePartitionCoversAllGroups() throws Exception {
+        Map<String, ExecutionContext> partitions = new AicGroupRangePartitioner(database).partition(1);
+
+        assertEquals(2, partitions.size());
+        long rows = 0;
+        for (ExecutionContext context : partitions.values()) {
+            rows += readPartition(context).size();
+        }
+        assertEquals(530, rows);
+    }
+
+    private List<Address> readPartition(ExecutionContext context) throws Exception {
+        String fromGroup = (String) context.get(AicGroupRangePartitioner.FROM_GROUP_KEY);
+        String toGroup = (String) context.get(AicGroupRangePartitioner.TO_GROUP_KEY);
+        Boolean nullKeys = (Boolean) context.get(AicGroupRangePartitioner.NULL_KEYS_KEY);
+
+        Map<String, Order> sortKeys = new LinkedHashMap<>();
+        if (!Boolean.TRUE.equals(nullKeys)) {
+            sortKeys.put("aic_group_id", Order.ASCENDING);
+            sortKeys.put("account_id", Order.ASCENDING);
+        }
+        sortKeys.put("id", Order.ASCENDING);
+        SqlPagingQueryProviderFactoryBean queryProvider = new SqlPagingQueryProviderFactoryBean();
+        queryProvider.setDataSource(database);
+        queryProvider.setSelectClause("SELECT id, org_id, aic_group_id, account_id, temp_id");
+        queryProvider.setFromClause("FROM address");
+        queryProvider.setWhereClause(AicGroupRangePartitioner.whereClause(fromGroup, toGroup, nullKeys));
+        queryProvider.setSortKeys(sortKeys);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put(AicGroupRangePartitioner.FROM_GROUP_KEY, fromGroup);
+        parameters.put(AicGroupRangePartitioner.TO_GROUP_KEY, toGroup);
+
+        JdbcPagingItemReader<Address> reader = new JdbcPagingItemReader<>();
+        reader.setDataSource(database);
+        reader.setQueryProvider(queryProvider.getObject());
+        reader.setParameterValues(parameters);
+        reader.setRowMapper(new AddressRowMapper());
+        reader.setPageSize(7);
+        reader.setSaveState(false);
+        reader.afterPropertiesSet();
+
+        List<Address> addresses = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        try {
+            Address address;
+            while ((address = reader.read()) != null) {
+                addresses.add(address);
+            }
+        } finally {
+            reader.close();
+        }
+        return addresses;
+    }
+}
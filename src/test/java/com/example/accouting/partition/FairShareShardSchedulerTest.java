@@ -0,0 +1,91 @@
+package com.example.accouting.partition;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.launch.JobLauncher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FairShareShardSchedulerTest {
+
+    private final Job shardJob = mock(Job.class);
+    private final Job mergeJob = mock(Job.class);
+    private final OrgShardPlanner planner = mock(OrgShardPlanner.class);
+
+    @Test
+    void testSmallShardsRunFirstAndMergeRunsLast() throws Exception {
+        when(planner.plan()).thenReturn(List.of(
+                new OrgShard(0, 4, 5_000_000), new OrgShard(1, 4, 50),
+                new OrgShard(2, 4, 10), new OrgShard(3, 4, 2_000_000)));
+        List<String> launched = Collections.synchronizedList(new ArrayList<>());
+        JobLauncher jobLauncher = (job, parameters) -> {
+            launched.add(job == mergeJob ? "merge" : "bucket" + parameters.getLong("bucket"));
+            return execution(BatchStatus.COMPLETED);
+        };
+
+        // A single slot makes the order deterministic
+        List<JobExecution> executions = new FairShareShardScheduler(jobLauncher, shardJob, mergeJob, planner,
+                1, 16, 2, 100).run();
+        System.out.println("[DEBUG_LOG] Launch order: " + launched);
+
+        assertEquals(5, executions.size());
+        assertEquals(List.of("bucket2", "bucket1", "bucket0", "bucket3", "merge"), launched);
+    }
+
+    @Test
+    void testMergeSkippedWhenShardFails() throws Exception {
+        when(planner.plan()).thenReturn(List.of(new OrgShard(0, 2, 10), new OrgShard(1, 2, 20)));
+        JobLauncher jobLauncher = mock(JobLauncher.class);
+        when(jobLauncher.run(any(Job.class), any(JobParameters.class))).thenReturn(execution(BatchStatus.FAILED));
+
+        List<JobExecution> executions = new FairShareShardScheduler(jobLauncher, shardJob, mergeJob, planner,
+                2, 16, 2, 100).run();
+
+        assertEquals(2, executions.size());
+        verify(jobLauncher, never()).run(eq(mergeJob), any(JobParameters.class));
+    }
+
+    @Test
+    void testFailedLaunchWaitsForOtherShards() throws Exception {
+        when(planner.plan()).thenReturn(List.of(new OrgShard(0, 3, 10), new OrgShard(1, 3, 20),
+                new OrgShard(2, 3, 30)));
+        List<String> launched = Collections.synchronizedList(new ArrayList<>());
+        JobLauncher jobLauncher = (job, parameters) -> {
+            launched.add(job == mergeJob ? "merge" : "bucket" + parameters.getLong("bucket"));
+            if (parameters.getLong("bucket") == 0L) {
+                throw new IllegalStateException("launch failed");
+            }
+            return execution(BatchStatus.COMPLETED);
+        };
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> new FairShareShardScheduler(jobLauncher, shardJob, mergeJob, planner, 2, 16, 2, 100).run());
+        System.out.println("[DEBUG_LOG] " + failure.getMessage());
+
+        assertEquals("launch failed", failure.getCause().getMessage());
+        assertTrue(failure.getMessage().contains("2 of 3 shards ran"), failure.getMessage());
+        assertEquals(3, launched.size(), "Remaining shards should still run: " + launched);
+    }
+
+    private static JobExecution execution(BatchStatus status) {
+        JobExecution execution = new JobExecution(new JobInstance(1L, "test"), new JobParameters());
+        execution.setStatus(status);
+        return execution;
+    }
+}
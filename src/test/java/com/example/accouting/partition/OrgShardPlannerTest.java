@@ -0,0 +1,64 @@
+package com.example.accouting.partition;
+
+import com.example.accouting.repository.HashBucketSql;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrgShardPlannerTest {
+
+    private static final int BUCKETS = 4;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).setName("orgshards").build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE address (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "org_id VARCHAR(255), aic_group_id VARCHAR(255), account_id VARCHAR(255), temp_id VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO address (org_id, aic_group_id, account_id) "
+                + "SELECT 'ORG' || (X % 17), 'AIC' || (X % 5), 'ACC' || X FROM SYSTEM_RANGE(1, 200)");
+        jdbcTemplate.update("INSERT INTO address (org_id, aic_group_id, account_id) "
+                + "SELECT NULL, 'AIC' || (X % 5), 'ACC' || X FROM SYSTEM_RANGE(1, 15)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testNullOrgRowsGetARealBucket() {
+        List<OrgShard> shards = new OrgShardPlanner(database, BUCKETS).plan();
+        System.out.println("[DEBUG_LOG] Shards: " + shards);
+
+        Set<Integer> buckets = new HashSet<>();
+        long plannedRows = 0;
+        for (OrgShard shard : shards) {
+            assertEquals(true, buckets.add(shard.getBucket()), "Bucket " + shard.getBucket() + " planned twice");
+            plannedRows += shard.getEstimatedRows();
+        }
+        assertEquals(215, plannedRows, "Every row, including NULL org IDs, should belong to a shard");
+
+        // The shard readers use the same expression, so each row is read by exactly one shard
+        String bucketExpression = HashBucketSql.bucketExpression(database, "org_id", BUCKETS);
+        long readRows = 0;
+        for (OrgShard shard : shards) {
+            readRows += jdbcTemplate.queryForObject("SELECT COUNT(*) FROM address WHERE " + bucketExpression
+                    + " = ?", Long.class, shard.getBucket());
+        }
+        assertEquals(215, readRows);
+    }
+}
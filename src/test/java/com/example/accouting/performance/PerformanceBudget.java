@@ -0,0 +1,101 @@
+package com.example.accouting.performance;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Budgets for the performance suite: absolute limits per tier from budgets.properties and
+ * allowed regressions relative to the stored baseline.json. A tier without a baseline is only
+ * checked against the absolute limits, unless perf.baseline.required=true (the Maven perf profile)
+ * and the suite is not recording one with perf.baseline.record=true.
+ */
+public class PerformanceBudget {
+
+    private final Properties budgets;
+    private final Map<String, PerformanceResult> baseline;
+    private final boolean baselineRequired;
+
+    private PerformanceBudget(Properties budgets, Map<String, PerformanceResult> baseline, boolean baselineRequired) {
+        this.budgets = budgets;
+        this.baseline = baseline;
+        this.baselineRequired = baselineRequired;
+    }
+
+    public static PerformanceBudget load(ObjectMapper mapper) throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream in = PerformanceBudget.class.getResourceAsStream("/performance/budgets.properties")) {
+            if (in != null) {
+                budgets.load(in);
+            }
+        }
+        Map<String, PerformanceResult> baseline = Collections.emptyMap();
+        try (InputStream in = PerformanceBudget.class.getResourceAsStream("/performance/baseline.json")) {
+            if (in != null) {
+                baseline = mapper.readValue(in, new TypeReference<Map<String, PerformanceResult>>() {});
+            }
+        }
+        return new PerformanceBudget(budgets, baseline,
+                Boolean.getBoolean("perf.baseline.required") && !Boolean.getBoolean("perf.baseline.record"));
+    }
+
+    public PerformanceResult baselineFor(int tier) {
+        return baseline.get(String.valueOf(tier));
+    }
+
+    /**
+     * @return human readable budget violations, empty if the result is within budget
+     */
+    public List<String> check(int tier, PerformanceResult result) {
+        List<String> violations = new ArrayList<>();
+
+        double minThroughput = doubleBudget("tier." + tier + ".min.throughput", 0);
+        if (result.getThroughputPerSecond() < minThroughput) {
+            violations.add(String.format("throughput %.0f/s below floor %.0f/s",
+                    result.getThroughputPerSecond(), minThroughput));
+        }
+
+        PerformanceResult base = baselineFor(tier);
+        if (base == null) {
+            if (baselineRequired) {
+                violations.add("no baseline for this tier in performance/baseline.json; run with "
+                        + "-Dperf.baseline.record=true and copy baseline-candidate.json from the report directory");
+            }
+            return violations;
+        }
+        // Lower is worse for throughput, higher is worse for everything else
+        checkRegression(violations, "throughput", base.getThroughputPerSecond(), result.getThroughputPerSecond(),
+                doubleBudget("throughput.max.regression", 0.30), false);
+        checkRegression(violations, "p99 chunk latency", base.getP99ChunkMillis(), result.getP99ChunkMillis(),
+                doubleBudget("p99.chunk.max.regression", 0.50), true);
+        checkRegression(violations, "peak heap", base.getPeakHeapMb(), result.getPeakHeapMb(),
+                doubleBudget("peak.heap.max.regression", 0.50), true);
+        checkRegression(violations, "statement count", base.getStatementCount(), result.getStatementCount(),
+                doubleBudget("statements.max.regression", 0.10), true);
+        return violations;
+    }
+
+    private void checkRegression(List<String> violations, String metric, double baseline, double actual,
+                                 double allowed, boolean higherIsWorse) {
+        if (baseline <= 0) {
+            return;
+        }
+        double change = higherIsWorse ? (actual - baseline) / baseline : (baseline - actual) / baseline;
+        if (change > allowed) {
+            violations.add(String.format("%s regressed %.0f%% (baseline %.2f, actual %.2f, allowed %.0f%%)",
+                    metric, change * 100, baseline, actual, allowed * 100));
+        }
+    }
+
+    private double doubleBudget(String key, double defaultValue) {
+        String value = budgets.getProperty(key);
+        return value == null ? defaultValue : Double.parseDouble(value.trim());
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.accouting.performance;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the primary test DataSource in a {@link StatementCountingDataSource} for the performance
+ * suite only. Activate with the perf profile next to test.
+ */
+@Configuration
+@Profile("perf")
+public class PerformanceDataSourceConfig {
+
+    @Bean
+    public static BeanPostProcessor statementCountingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (beanName.equals("primaryDataSource") && bean instanceof DataSource
+                        && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource((DataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+}
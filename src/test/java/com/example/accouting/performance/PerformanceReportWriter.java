@@ -0,0 +1,76 @@
+package com.example.accouting.performance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes performance results as JSON (usable as the next baseline) and as a small HTML table
+ */
+public class PerformanceReportWriter {
+
+    private final Path reportDir;
+    private final ObjectMapper mapper;
+
+    public PerformanceReportWriter(Path reportDir, ObjectMapper mapper) {
+        this.reportDir = reportDir;
+        this.mapper = mapper.copy().enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    public void write(int tier, PerformanceResult result, PerformanceResult baseline, List<String> violations)
+            throws IOException {
+        Files.createDirectories(reportDir);
+        mapper.writeValue(reportDir.resolve("addressJob-" + tier + ".json").toFile(), result);
+        Files.writeString(reportDir.resolve("addressJob-" + tier + ".html"),
+                toHtml(tier, result, baseline, violations), StandardCharsets.UTF_8);
+
+        // Merge into one file in the same shape as src/test/resources/performance/baseline.json
+        Path candidate = reportDir.resolve("baseline-candidate.json");
+        Map<String, PerformanceResult> all = new TreeMap<>();
+        if (Files.exists(candidate)) {
+            all.putAll(mapper.readValue(candidate.toFile(),
+                    mapper.getTypeFactory().constructMapType(TreeMap.class, String.class, PerformanceResult.class)));
+        }
+        all.put(String.valueOf(tier), result);
+        mapper.writeValue(candidate.toFile(), all);
+    }
+
+    private String toHtml(int tier, PerformanceResult result, PerformanceResult baseline, List<String> violations) {
+        StringBuilder html = new StringBuilder();
+        html.append("<html><head><title>addressJob ").append(tier).append(" rows</title></head><body>\n");
+        html.append("<h1>addressJob at ").append(tier).append(" rows: ")
+                .append(violations.isEmpty() ? "PASS" : "FAIL").append("</h1>\n");
+        html.append("<table border=\"1\"><tr><th>Metric</th><th>Actual</th><th>Baseline</th></tr>\n");
+        row(html, "Job status", result.getJobStatus(), baseline == null ? null : baseline.getJobStatus());
+        row(html, "Duration (ms)", result.getDurationMillis(), baseline == null ? null : baseline.getDurationMillis());
+        row(html, "Throughput (rows/s)", String.format("%.0f", result.getThroughputPerSecond()),
+                baseline == null ? null : String.format("%.0f", baseline.getThroughputPerSecond()));
+        row(html, "p50 chunk (ms)", result.getP50ChunkMillis(), baseline == null ? null : baseline.getP50ChunkMillis());
+        row(html, "p99 chunk (ms)", result.getP99ChunkMillis(), baseline == null ? null : baseline.getP99ChunkMillis());
+        row(html, "Chunks", result.getChunkCount(), baseline == null ? null : baseline.getChunkCount());
+        row(html, "Peak heap (MB)", result.getPeakHeapMb(), baseline == null ? null : baseline.getPeakHeapMb());
+        row(html, "GC time (ms)", result.getGcTimeMillis(), baseline == null ? null : baseline.getGcTimeMillis());
+        row(html, "GC count", result.getGcCount(), baseline == null ? null : baseline.getGcCount());
+        row(html, "DB statements", result.getStatementCount(), baseline == null ? null : baseline.getStatementCount());
+        html.append("</table>\n");
+        if (!violations.isEmpty()) {
+            html.append("<h2>Budget violations</h2><ul>\n");
+            violations.forEach(violation -> html.append("<li>").append(violation).append("</li>\n"));
+            html.append("</ul>\n");
+        }
+        html.append("</body></html>\n");
+        return html.toString();
+    }
+
+    private void row(StringBuilder html, String metric, Object actual, Object baseline) {
+        html.append("<tr><td>").append(metric).append("</td><td>").append(actual)
+                .append("</td><td>").append(baseline == null ? "-" : baseline).append("</td></tr>\n");
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.accouting.performance;
+
+import lombok.Data;
+
+/**
+ * Measurements of one addressJob run at a given scale tier
+ */
+@Data
+public class PerformanceResult {
+
+    private int records;
+    private String jobStatus;
+    private long durationMillis;
+    private double throughputPerSecond;
+    private double p50ChunkMillis;
+    private double p99ChunkMillis;
+    private long chunkCount;
+    private long peakHeapMb;
+    private long gcTimeMillis;
+    private long gcCount;
+    private long statementCount;
+}
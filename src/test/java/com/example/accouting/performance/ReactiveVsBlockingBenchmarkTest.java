@@ -0,0 +1,134 @@
+package com.example.accouting.performance;
+
+import com.example.accouting.datagen.BulkAddressLoader;
+import com.example.accouting.datagen.ClusterSizeDistribution;
+import com.example.accouting.datagen.DatasetSpec;
+import com.example.accouting.processor.AddressItemProcessor;
+import com.example.accouting.reactive.ReactiveAddressEngine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares rows per second per database connection of the blocking processAddressStep and the
+ * reactive R2DBC engine on the same data. Both run against the in-memory H2 test database; the
+ * reactive engine reaches it through the r2dbc-h2 driver under the same database name.
+ * The blocking side is timed from the processAddressStep execution alone, like the reactive
+ * engine run, and divided by the peak number of primary connections open during the job.
+ * Writes reactive-vs-blocking-{rows}.json to perf.report.dir.
+ */
+@SpringBootTest
+@ActiveProfiles({"test", "perf"})
+@DirtiesContext
+public class ReactiveVsBlockingBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveVsBlockingBenchmarkTest.class);
+
+    private static final int REACTIVE_POOL_SIZE = 2;
+
+    @Autowired
+    private JobLauncher jobLauncher;
+
+    @Autowired
+    private Job addressJob;
+
+    @Autowired
+    private AddressItemProcessor processor;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Test
+    void testReactiveAndBlockingThroughputPerConnection() throws Exception {
+        int rows = Integer.parseInt(System.getProperty("perf.tiers", "10000").split(",")[0].trim());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(primaryDataSource);
+        jdbcTemplate.execute("TRUNCATE TABLE address");
+        new BulkAddressLoader(primaryDataSource).load(testDataSpec(rows));
+
+        StatementCountingDataSource connections = primaryDataSource.unwrap(StatementCountingDataSource.class);
+        connections.reset();
+        JobExecution jobExecution = jobLauncher.run(addressJob, new JobParametersBuilder()
+                .addLong("time", System.currentTimeMillis())
+                .toJobParameters());
+        assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+        // The other steps are single-threaded, so the peak comes from the processing step
+        int blockingConnections = Math.max(1, connections.getPeakConnections());
+        StepExecution processStep = jobExecution.getStepExecutions().stream()
+                .filter(stepExecution -> stepExecution.getStepName().equals("processAddressStep"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("addressJob did not run processAddressStep"));
+        double blockingSeconds = Duration.between(processStep.getStartTime(), processStep.getEndTime()).toNanos()
+                / 1_000_000_000.0;
+
+        jdbcTemplate.update("UPDATE address SET temp_id = NULL");
+
+        long updated;
+        double reactiveSeconds;
+        int reactiveConnections;
+        ConnectionPool pool = ReactiveAddressEngine.connectionPool("r2dbc:h2:mem:///testdb", "sa", "", REACTIVE_POOL_SIZE);
+        try (ReactiveAddressEngine engine = new ReactiveAddressEngine(pool, processor, 1000, 10000,
+                REACTIVE_POOL_SIZE - 1)) {
+            long reactiveStart = System.nanoTime();
+            updated = engine.run().block();
+            reactiveSeconds = (System.nanoTime() - reactiveStart) / 1_000_000_000.0;
+            // Connections stay allocated while idle, so this is what the run opened
+            reactiveConnections = Math.max(1, pool.getMetrics().map(PoolMetrics::allocatedSize).orElse(REACTIVE_POOL_SIZE));
+        }
+        assertEquals(rows, updated, "Reactive engine should update every row");
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM address WHERE temp_id IS NULL", Long.class));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rows", rows);
+        result.put("blockingSeconds", blockingSeconds);
+        result.put("blockingConnections", blockingConnections);
+        result.put("blockingRowsPerSecondPerConnection", rows / blockingSeconds / blockingConnections);
+        result.put("reactiveSeconds", reactiveSeconds);
+        result.put("reactiveConnections", reactiveConnections);
+        result.put("reactiveRowsPerSecondPerConnection", rows / reactiveSeconds / reactiveConnections);
+        log.info("Reactive vs blocking at {} rows: {}", rows, result);
+
+        Path reportDir = Path.of(System.getProperty("perf.report.dir", "target/performance-reports"));
+        Files.createDirectories(reportDir);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(reportDir.resolve("reactive-vs-blocking-" + rows + ".json").toFile(), result);
+    }
+
+    private DatasetSpec testDataSpec(int count) {
+        DatasetSpec spec = new DatasetSpec();
+        spec.setRows(count);
+        spec.setOrgCount(10);
+        spec.setAicGroupCount(10);
+        spec.setAccountCount(count);
+        spec.setClusterSizeDistribution(ClusterSizeDistribution.GEOMETRIC);
+        spec.setMeanClusterSize(5);
+        spec.setBlockSize(Math.max(1_000, count / 8));
+        spec.setBatchSize(1_000);
+        return spec;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.accouting.performance;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts statement executions on every connection of the wrapped DataSource, so plain JDBC
+ * readers and writers, COPY and JPA all show up in the count. A JDBC batch counts once.
+ * Also tracks the peak number of connections open at the same time.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final LongAdder executions = new LongAdder();
+
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger peakConnections = new AtomicInteger();
+
+    public StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return countingConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return countingConnection(super.getConnection(username, password));
+    }
+
+    public long getExecutionCount() {
+        return executions.sum();
+    }
+
+    /**
+     * @return the most connections open at once since the last {@link #reset()}
+     */
+    public int getPeakConnections() {
+        return peakConnections.get();
+    }
+
+    public void reset() {
+        executions.reset();
+        peakConnections.set(openConnections.get());
+    }
+
+    private Connection countingConnection(Connection connection) {
+        peakConnections.accumulateAndGet(openConnections.incrementAndGet(), Math::max);
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                delegating(connection, (method, result) -> {
+                    if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                        openConnections.decrementAndGet();
+                    } else if (result instanceof CallableStatement) {
+                        return countingStatement((Statement) result, CallableStatement.class);
+                    } else if (result instanceof PreparedStatement) {
+                        return countingStatement((Statement) result, PreparedStatement.class);
+                    } else if (result instanceof Statement) {
+                        return countingStatement((Statement) result, Statement.class);
+                    }
+                    return result;
+                }));
+    }
+
+    private Object countingStatement(Statement statement, Class<? extends Statement> type) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                delegating(statement, (method, result) -> {
+                    if (EXECUTE_METHODS.contains(method.getName())) {
+                        executions.increment();
+                    }
+                    return result;
+                }));
+    }
+
+    private static InvocationHandler delegating(Object target, ResultHandler resultHandler) {
+        return (proxy, method, args) -> {
+            // Compare by proxy identity, as connection holders expect
+            if (method.getName().equals("equals") && method.getParameterCount() == 1) {
+                return proxy == args[0];
+            } else if (method.getName().equals("hashCode") && method.getParameterCount() == 0) {
+                return System.identityHashCode(proxy);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            return resultHandler.handle(method, result);
+        };
+    }
+
+    private interface ResultHandler {
+        Object handle(Method method, Object result);
+    }
+}
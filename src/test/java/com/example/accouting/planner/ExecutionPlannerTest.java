@@ -0,0 +1,89 @@
+package com.example.accouting.planner;
+
+import com.example.accouting.support.HyperLogLog;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.ExecutionContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cardinality estimates and plan decisions on synthetic samples
+ */
+class ExecutionPlannerTest {
+
+    @Test
+    void testHyperLogLogEstimateWithinErrorBound() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 200_000; i++) {
+            sketch.add("ACC" + i);
+            // Duplicates must not change the estimate
+            sketch.add("ACC" + (i / 2));
+        }
+        long estimate = sketch.estimate();
+        System.out.println("[DEBUG_LOG] HyperLogLog estimate for 200000 distinct values: " + estimate);
+        assertTrue(Math.abs(estimate - 200_000) < 200_000 * 0.03, "Estimate should be within 3%: " + estimate);
+    }
+
+    @Test
+    void testScalesDistinctAccountsFromSample() {
+        // 10% sample of 1M rows where every account appears once
+        AddressSample sample = sample(100_000, 1_000_000, 1, 100);
+
+        long accounts = sample.estimatedDistinctAccounts();
+        System.out.println("[DEBUG_LOG] Estimated distinct accounts: " + accounts);
+        assertTrue(accounts > 250_000, "Singletons should be scaled up: " + accounts);
+        assertTrue(accounts <= 1_000_000, "Estimate should not exceed the row count: " + accounts);
+        assertTrue(Math.abs(sample.estimatedDistinctAicGroups() - 100) <= 3,
+                "Repeated values should not be scaled: " + sample.estimatedDistinctAicGroups());
+    }
+
+    @Test
+    void testLargestGroupBoundsThreadsInGroupedMode() {
+        AddressSample sample = sample(10_000, 10_000_000, 1, 4);
+        sample.add("ORG", "HUGE", "HUGE-ACC", 40);
+        for (int i = 0; i < 10_000; i++) {
+            sample.add("ORG", "HUGE", "HUGE-ACC" + i, 40);
+        }
+
+        ExecutionPlan grouped = planner(true).plan(sample);
+        ExecutionPlan byId = planner(false).plan(sample);
+
+        assertEquals(2, grouped.getThreads(), "Half the rows in one group leave room for two threads");
+        assertEquals(8, byId.getThreads());
+    }
+
+    @Test
+    void testPlanChoosesCacheModeAndRoundTrips() {
+        ExecutionPlan small = planner(false).plan(sample(5_000, 5_000, 1, 10));
+        assertEquals(ExecutionPlan.CacheMode.EXACT, small.getCacheMode());
+        assertTrue(small.isPreload(), "Small tables should preload their few accounts");
+
+        ExecutionPlan large = planner(false).plan(sample(100_000, 10_000_000, 1, 1_000));
+        assertEquals(ExecutionPlan.CacheMode.BLOOM, large.getCacheMode());
+        assertTrue(large.isPreload());
+        assertTrue(large.getChunkSize() >= ExecutionPlanner.MIN_CHUNK_SIZE
+                && large.getChunkSize() <= ExecutionPlanner.MAX_CHUNK_SIZE);
+        System.out.println("[DEBUG_LOG] Plan:" + large.format());
+
+        ExecutionContext context = new ExecutionContext();
+        assertNull(ExecutionPlan.readFrom(context));
+        large.writeTo(context);
+        assertEquals(large, ExecutionPlan.readFrom(context));
+    }
+
+    private static ExecutionPlanner planner(boolean grouped) {
+        return new ExecutionPlanner(8, grouped, 250_000, 262_144, 20_000, 100_000, true);
+    }
+
+    private static AddressSample sample(int sampledRows, long totalRows, int rowsPerAccount, int groups) {
+        AddressSample sample = new AddressSample();
+        sample.setMethod("synthetic");
+        sample.setEstimatedTotalRows(totalRows);
+        for (int i = 0; i < sampledRows; i++) {
+            sample.add("ORG" + (i % 10), "AIC" + (i % groups), "ACC" + (i / rowsPerAccount), 40);
+        }
+        return sample;
+    }
+}
@@ -7,10 +7,12 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.Mockito.*;
 
@@ -51,10 +53,12 @@ class AddressItemProcessorTest {
         // Mock findAllDistinctAccountIDs to return all account IDs
         Set<String> allAccountIds = new HashSet<>(Arrays.asList("AC101", "AC102", "AC103", "AC104"));
         when(addressRepository.findAllDistinctAccountIDs()).thenReturn(allAccountIds);
+        when(addressRepository.streamAllDistinctAccountIDs()).thenAnswer(invocation -> allAccountIds.stream());
 
         // Mock findAllDistinctAicGroupIDs to return all AIC group IDs
         Set<String> allAicGroupIds = new HashSet<>(Arrays.asList("A", "B", "C", "D", "E"));
         when(addressRepository.findAllDistinctAicGroupIDs()).thenReturn(allAicGroupIds);
+        when(addressRepository.streamAllDistinctAicGroupIDs()).thenAnswer(invocation -> allAicGroupIds.stream());
 
         // Mock findAccountIDsByAicGroupID to return account IDs for each AIC group
         when(addressRepository.findAccountIDsByAicGroupID("A")).thenReturn(new HashSet<>(Arrays.asList("AC101", "AC103", "AC104", "AC102")));
@@ -137,4 +141,71 @@ class AddressItemProcessorTest {
         // during the process method, as all addresses now get the same tempID from the start.
         // Instead, we just verify that all addresses have the expected tempID.
     }
+
+    @Test
+    void testBloomFilterHitIsConfirmedInDatabase() throws Exception {
+        Set<String> tableAccounts = new HashSet<>(Arrays.asList("AC101", "AC102", "AC103", "AC104"));
+        when(addressRepository.existsByAccountID(anyString()))
+                .thenAnswer(invocation -> tableAccounts.contains(invocation.<String>getArgument(0)));
+        AddressItemProcessor bloomProcessor = bloomProcessor(false);
+
+        for (Address address : testAddresses) {
+            bloomProcessor.process(address);
+        }
+        bloomProcessor.process(new Address("org6", "F", "AC999", null));
+
+        System.out.println("[DEBUG_LOG] Observed false positive rate: " + bloomProcessor.getObservedFalsePositiveRate());
+        // Two accounts are beyond the preload limit; each is confirmed once and then cached
+        verify(addressRepository, times(2)).existsByAccountID(argThat(tableAccounts::contains));
+        assertEquals(5, bloomProcessor.getKnownAccountCount());
+        assertEquals("T00000000000000", bloomProcessor.finalTempIdFor("AC999"));
+        assertNull(bloomProcessor.finalTempIdFor("AC000"), "Unprocessed accounts keep their tempID");
+
+        bloomProcessor.updateAllAddressesWithFinalTempId();
+        verify(addressRepository).updateTempIDForAccountIDs(eq("T00000000000000"),
+                argThat(accounts -> accounts.size() == 5 && accounts.contains("AC999")));
+        verify(addressRepository, never()).updateTempIDForAllAccounts(anyString());
+    }
+
+    @Test
+    void testBoundedBloomModeUpdatesEveryAccount() throws Exception {
+        when(addressRepository.existsByAccountID(anyString())).thenReturn(true);
+        AddressItemProcessor bloomProcessor = bloomProcessor(true);
+        ReflectionTestUtils.setField(bloomProcessor, "bloomConfirmedCacheMaxAccounts", 2);
+
+        for (Address address : testAddresses) {
+            bloomProcessor.process(address);
+        }
+
+        assertEquals("T00000000000000", bloomProcessor.finalTempIdFor("AC000"),
+                "Every row with an account ID gets the final tempID in this mode");
+        bloomProcessor.updateAllAddressesWithFinalTempId();
+        verify(addressRepository).updateTempIDForAllAccounts("T00000000000000");
+        verify(addressRepository, never()).updateTempIDForAccountIDs(anyString(), anySet());
+    }
+
+    private AddressItemProcessor bloomProcessor(boolean updateAllAccounts) {
+        AddressItemProcessor bloomProcessor = new AddressItemProcessor();
+        ReflectionTestUtils.setField(bloomProcessor, "addressRepository", addressRepository);
+        ReflectionTestUtils.setField(bloomProcessor, "preloadMaxAccounts", 2);
+        ReflectionTestUtils.setField(bloomProcessor, "bloomExpectedAccounts", 1000L);
+        ReflectionTestUtils.setField(bloomProcessor, "bloomUpdateAllAccounts", updateAllAccounts);
+        bloomProcessor.init();
+        return bloomProcessor;
+    }
+
+    @Test
+    void testPreloadFailureDoesNotQueryPerAccount() throws Exception {
+        when(addressRepository.streamAllDistinctAccountIDs()).thenThrow(new IllegalStateException("database down"));
+        AddressItemProcessor failedProcessor = new AddressItemProcessor();
+        ReflectionTestUtils.setField(failedProcessor, "addressRepository", addressRepository);
+        failedProcessor.init();
+
+        for (Address address : testAddresses) {
+            failedProcessor.process(address);
+        }
+
+        verify(addressRepository, never()).existsByAccountID(anyString());
+        assertEquals(4, failedProcessor.getKnownAccountCount(), "Processed accounts should still be tracked");
+    }
 }
@@ -0,0 +1,124 @@
+package com.example.accouting.streaming;
+
+import com.example.accouting.model.Address;
+import com.example.accouting.processor.AddressItemProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the polling feed of the continuous mode against H2 and measures how fast it catches up
+ */
+class ContinuousAddressProcessorTest {
+
+    private static final int INITIAL_ROWS = 20000;
+    private static final int LATE_ROWS = 500;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private AddressItemProcessor itemProcessor;
+    private ContinuousAddressProcessor continuousProcessor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).setName("continuous").build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE address (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "org_id VARCHAR(255), aic_group_id VARCHAR(255), account_id VARCHAR(255), temp_id VARCHAR(255))");
+        jdbcTemplate.update("INSERT INTO address (org_id, aic_group_id, account_id, temp_id) "
+                + "VALUES ('ORG0', 'AIC0', 'ACC0', 'T_EXISTING')");
+
+        itemProcessor = mock(AddressItemProcessor.class);
+        when(itemProcessor.process(any(Address.class))).thenAnswer(invocation -> {
+            Address address = invocation.getArgument(0);
+            address.setTempID("T00000000000000");
+            return address;
+        });
+
+        continuousProcessor = new ContinuousAddressProcessor();
+        ReflectionTestUtils.setField(continuousProcessor, "processor", itemProcessor);
+        ReflectionTestUtils.setField(continuousProcessor, "primaryDataSource", database);
+        ReflectionTestUtils.setField(continuousProcessor, "transactionManager", new DataSourceTransactionManager(database));
+        ReflectionTestUtils.setField(continuousProcessor, "batchSize", 5000);
+        ReflectionTestUtils.setField(continuousProcessor, "pollIntervalMs", 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        continuousProcessor.stop();
+        database.shutdown();
+    }
+
+    @Test
+    void testPollingAssignsTempIdsToNewRows() throws Exception {
+        insertRows(INITIAL_ROWS);
+
+        long start = System.nanoTime();
+        CompletableFuture<Void> run = CompletableFuture.runAsync(() -> {
+            try {
+                continuousProcessor.runUntilStopped();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        awaitNoUnassignedRows(run);
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        double rowsPerSecond = INITIAL_ROWS * 1000.0 / elapsedMillis;
+        System.out.println("[DEBUG_LOG] Caught up with " + INITIAL_ROWS + " rows in " + elapsedMillis
+                + " ms (" + Math.round(rowsPerSecond) + " rows/s)");
+
+        // Rows arriving while the loop waits are picked up by the next poll
+        insertRows(LATE_ROWS);
+        awaitNoUnassignedRows(run);
+
+        continuousProcessor.stop();
+        run.get(5, TimeUnit.SECONDS);
+
+        verify(itemProcessor, times(INITIAL_ROWS + LATE_ROWS)).process(any(Address.class));
+        assertEquals("T_EXISTING", jdbcTemplate.queryForObject(
+                "SELECT temp_id FROM address WHERE account_id = 'ACC0'", String.class),
+                "Rows that already have a tempID should not be reprocessed");
+        assertTrue(rowsPerSecond > 1000, "Polling feed should keep up with thousands of rows per second, got "
+                + Math.round(rowsPerSecond));
+    }
+
+    private void insertRows(int rows) {
+        jdbcTemplate.update("INSERT INTO address (org_id, aic_group_id, account_id) "
+                + "SELECT 'ORG' || (X % 100), 'AIC' || (X % 1000), 'ACC' || X FROM SYSTEM_RANGE(1, ?)", rows);
+    }
+
+    private void awaitNoUnassignedRows(CompletableFuture<Void> run) throws Exception {
+        long deadline = System.currentTimeMillis() + 30000;
+        while (System.currentTimeMillis() < deadline) {
+            if (run.isDone()) {
+                run.get();
+                fail("Continuous processing stopped unexpectedly");
+            }
+            Integer unassigned = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM address WHERE temp_id IS NULL", Integer.class);
+            if (unassigned != null && unassigned == 0) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Rows without a tempID remained after 30 seconds");
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.accouting.summary;
+
+import com.example.accouting.model.Address;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.Chunk;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterStatisticsTest {
+
+    @Test
+    void testHistogramAndLargestClusters() {
+        ClusterStatistics statistics = new ClusterStatistics(5);
+        List<Address> addresses = new ArrayList<>();
+        // One cluster of 9 rows, one of 2 rows, one of 1 row
+        for (int i = 0; i < 9; i++) {
+            addresses.add(new Address("org1", "A", "AC10" + i, "T00000000000000"));
+        }
+        addresses.add(new Address("org2", "B", "AC200", "T00000000000001"));
+        addresses.add(new Address("org2", "B", "AC201", "T00000000000001"));
+        addresses.add(new Address("org3", "C", "AC300", "T00000000000002"));
+        statistics.afterWrite(new Chunk<>(addresses));
+
+        assertEquals(12, statistics.getRowsWritten());
+        assertEquals(3, statistics.getClusterCount());
+        assertEquals(12, statistics.getDistinctAccounts());
+
+        Map<String, Long> histogram = statistics.sizeHistogram();
+        assertEquals(1L, histogram.get("1"));
+        assertEquals(1L, histogram.get("2-3"));
+        assertEquals(1L, histogram.get("8-15"));
+
+        Map<String, Long> largest = statistics.largestClusters(2);
+        assertEquals(List.of("T00000000000000", "T00000000000001"), new ArrayList<>(largest.keySet()));
+        assertEquals(9L, largest.get("T00000000000000"));
+    }
+
+    @Test
+    void testSampleIsBounded() {
+        ClusterStatistics statistics = new ClusterStatistics(3);
+        for (int chunk = 0; chunk < 10; chunk++) {
+            List<Address> addresses = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                addresses.add(new Address("org1", "A", "AC" + chunk + "-" + i, "T00000000000000"));
+            }
+            statistics.afterWrite(new Chunk<>(addresses));
+        }
+        assertEquals(3, statistics.getSample().size());
+        assertEquals(1_000, statistics.getRowsWritten());
+        assertEquals(1_000, statistics.getDistinctAccounts(), 20, "Distinct accounts should be estimated closely");
+    }
+
+    @Test
+    void testResetClearsState() {
+        ClusterStatistics statistics = new ClusterStatistics(3);
+        statistics.afterWrite(new Chunk<>(List.of(new Address("org1", "A", "AC101", "T00000000000000"))));
+        statistics.reset();
+        assertEquals(0, statistics.getRowsWritten());
+        assertEquals(0, statistics.getClusterCount());
+        assertEquals(0, statistics.getDistinctAccounts());
+        assertTrue(statistics.getSample().isEmpty());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.accouting.swap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.StepContribution;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Builds and swaps in the shadow table on H2, where the swap runs without the PostgreSQL lock
+ */
+class ShadowTableSwapTaskletTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).setName("shadowswap").build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE address (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "org_id VARCHAR(255), aic_group_id VARCHAR(255), account_id VARCHAR(255), temp_id VARCHAR(255))");
+        jdbcTemplate.execute("CREATE INDEX idx_address_group_account ON address (aic_group_id, account_id, id)");
+        jdbcTemplate.execute("CREATE INDEX idx_address_account ON address (account_id)");
+        jdbcTemplate.update("INSERT INTO address (org_id, aic_group_id, account_id, temp_id) VALUES "
+                + "('ORG1', 'AIC1', 'ACC1', 'T1'), ('ORG1', 'AIC1', 'ACC2', 'T2'), "
+                + "('ORG2', 'AIC2', 'ACC3', 'T3'), ('ORG2', 'AIC2', NULL, 'T4')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void testSwapAppliesFinalTempIds() throws Exception {
+        Map<String, String> finalTempIds = Map.of("ACC1", "T00000000000000", "ACC2", "T00000000000000");
+        StepContribution contribution = mock(StepContribution.class);
+
+        new ShadowTableSwapTasklet(database, finalTempIds::get).execute(contribution, null);
+
+        List<String> tempIds = jdbcTemplate.queryForList("SELECT temp_id FROM address ORDER BY id", String.class);
+        System.out.println("[DEBUG_LOG] TempIDs after swap: " + tempIds);
+        assertEquals(List.of("T00000000000000", "T00000000000000", "T3", "T4"), tempIds,
+                "Known accounts should get the final tempID, other rows keep theirs");
+        verify(contribution).incrementWriteCount(4);
+    }
+
+    @Test
+    void testSwapRestoresSchema() throws Exception {
+        new ShadowTableSwapTasklet(database, accountId -> null).execute(mock(StepContribution.class), null);
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES "
+                + "WHERE LOWER(TABLE_NAME) IN ('address_shadow', 'address_old')", Integer.class));
+        List<String> indexes = jdbcTemplate.queryForList("SELECT LOWER(INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES "
+                + "WHERE LOWER(TABLE_NAME) = 'address'", String.class);
+        assertTrue(indexes.contains("idx_address_group_account"), "Group index should be renamed: " + indexes);
+        assertTrue(indexes.contains("idx_address_account"), "Account index should be renamed: " + indexes);
+
+        // New rows continue after the copied ids
+        jdbcTemplate.update("INSERT INTO address (org_id, aic_group_id, account_id) VALUES ('ORG3', 'AIC3', 'ACC9')");
+        assertEquals(5L, jdbcTemplate.queryForObject("SELECT MAX(id) FROM address", Long.class));
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.accouting.throttle;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * AIMD rate adjustment against stubbed load signals, and token bucket pacing
+ */
+class AdaptiveWriteGovernorTest {
+
+    private DatabaseLoadProbe probe;
+    private AdaptiveWriteGovernor governor;
+
+    @BeforeEach
+    void setUp() {
+        probe = mock(DatabaseLoadProbe.class);
+        // Adjustments are triggered by hand, never by recordWrite
+        governor = new AdaptiveWriteGovernor(probe, 1_000, 20_000, 10_000, 2_000, 0.5, Long.MAX_VALUE,
+                0, 500, 0, 0);
+    }
+
+    @Test
+    void testBacksOffMultiplicativelyWhileConnectionsArePending() {
+        when(probe.pendingConnections()).thenReturn(3);
+
+        governor.adjust();
+        assertEquals(5_000, governor.getRate(), 0.001);
+        governor.adjust();
+        governor.adjust();
+        governor.adjust();
+        System.out.println("[DEBUG_LOG] Rate after repeated backoff: " + governor.getRate());
+        assertEquals(1_000, governor.getRate(), 0.001, "Rate should not drop below the minimum");
+    }
+
+    @Test
+    void testIncreasesAdditivelyOnlyWhileWriting() {
+        governor.adjust();
+        assertEquals(10_000, governor.getRate(), 0.001, "Idle intervals should not raise the rate");
+
+        for (int i = 0; i < 10; i++) {
+            governor.recordWrite(TimeUnit.MILLISECONDS.toNanos(20));
+            governor.adjust();
+        }
+        assertEquals(20_000, governor.getRate(), 0.001, "Rate should grow by the step up to the maximum");
+    }
+
+    @Test
+    void testBacksOffWhenBatchLatencyExceedsTarget() {
+        governor.recordWrite(TimeUnit.MILLISECONDS.toNanos(100));
+        governor.recordWrite(TimeUnit.MILLISECONDS.toNanos(1_100));
+
+        governor.adjust();
+        assertEquals(5_000, governor.getRate(), 0.001);
+    }
+
+    @Test
+    void testTokenBucketPacesLargeAcquisitions() throws Exception {
+        // 100 tokens of burst, then 1000 per second
+        TokenBucket bucket = new TokenBucket(1_000, 0.1);
+
+        assertEquals(0, bucket.acquire(100), "Burst should be available immediately");
+        long waited = bucket.acquire(200);
+        System.out.println("[DEBUG_LOG] Waited " + TimeUnit.NANOSECONDS.toMillis(waited) + " ms for 200 tokens");
+        assertTrue(waited >= TimeUnit.MILLISECONDS.toNanos(150) && waited <= TimeUnit.MILLISECONDS.toNanos(200),
+                "200 tokens at 1000/s should take about 200 ms: " + waited);
+    }
+}